@@ -0,0 +1,81 @@
+package com.example.userservice.jmh;
+
+import com.example.userservice.UserServiceApplication;
+import com.example.userservice.dto.UserBatchOperation;
+import com.example.userservice.dto.UserBatchRequest;
+import com.example.userservice.dto.UserBatchResult;
+import com.example.userservice.dto.UserRequest;
+import com.example.userservice.dto.UserResponse;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Скорость вставки на встроенной H2: вызов UserService.createUser на строку против пакета
+ * из {@link UserBatchRequest#MAX_OPERATIONS} операций через processBatch. Оба результата — в строках
+ * в секунду (у processBatch операция JMH — одна строка пакета). Таблица очищается после каждой итерации.
+ *
+ * Только этот бенчмарк: mvn -Pjmh test-compile exec:exec -Djmh.includes=BatchInsertBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchInsertBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private UserRepository userRepository;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(UserServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(
+                        "logging.level.org.hibernate.SQL=WARN",
+                        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN")
+                .run();
+        userService = context.getBean(UserService.class);
+        userRepository = context.getBean(UserRepository.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearUsers() {
+        userRepository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserResponse createUser() {
+        return userService.createUser(request(++sequence));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(UserBatchRequest.MAX_OPERATIONS)
+    public List<UserBatchResult> processBatch() {
+        List<UserBatchOperation> operations = new ArrayList<>(UserBatchRequest.MAX_OPERATIONS);
+        for (int i = 0; i < UserBatchRequest.MAX_OPERATIONS; i++) {
+            operations.add(UserBatchOperation.create(request(++sequence)));
+        }
+        return userService.processBatch(operations);
+    }
+
+    private static UserRequest request(long key) {
+        return new UserRequest("User " + key, "batch-" + key + "@example.com", 18 + (int) (key % 60));
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.userservice.jmh;
+
+import com.example.userservice.UserServiceApplication;
+import com.example.userservice.dto.UserRequest;
+import com.example.userservice.dto.UserResponse;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Пропускная способность createUser при одновременных регистрациях (64 потока JMH): отдельный INSERT
+ * и коммит на вызов (maxBatchSize=off) против группового коммита с размером пакета maxBatchSize и окном сбора maxDelay.
+ * При off параметр maxDelay не используется: достаточно одного из этих прогонов.
+ *
+ * База — файловая H2 в target/: коммит пишет в файл, как и у настоящей СУБД. Таблица очищается после
+ * каждой итерации, чтобы её рост не влиял на сравнение.
+ *
+ * Только этот бенчмарк: mvn -Pjmh test-compile exec:exec -Djmh.includes=GroupCommitBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(64)
+@State(Scope.Benchmark)
+public class GroupCommitBenchmark {
+
+    private static final String DATASOURCE_URL = "jdbc:h2:file:./target/group-commit-benchmark";
+
+    @Param({"off", "50", "200"})
+    public String maxBatchSize;
+
+    @Param({"1ms", "5ms", "10ms"})
+    public String maxDelay;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private UserRepository userRepository;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean groupCommit = !maxBatchSize.equals("off");
+        context = new SpringApplicationBuilder(UserServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(
+                        "spring.datasource.url=" + DATASOURCE_URL,
+                        "user-service.group-commit.enabled=" + groupCommit,
+                        "user-service.group-commit.max-batch-size=" + (groupCommit ? maxBatchSize : "50"),
+                        "user-service.group-commit.max-delay=" + maxDelay,
+                        "logging.level.org.hibernate.SQL=WARN",
+                        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN")
+                .run();
+        userService = context.getBean(UserService.class);
+        userRepository = context.getBean(UserRepository.class);
+        userRepository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearUsers() {
+        userRepository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserResponse createUser() {
+        long key = sequence.incrementAndGet();
+        return userService.createUser(new UserRequest("User " + key, "group-" + key + "@example.com", 18 + (int) (key % 60)));
+    }
+}
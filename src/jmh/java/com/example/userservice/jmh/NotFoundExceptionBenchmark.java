@@ -0,0 +1,53 @@
+package com.example.userservice.jmh;
+
+import com.example.userservice.exception.UserNotFoundException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость одного промаха по id: прежний RuntimeException со стеком и склеенным сообщением
+ * против {@link UserNotFoundException} без стека. Глубина рекурсии имитирует стек
+ * Spring-прокси и MVC, через который проходит реальный запрос.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NotFoundExceptionBenchmark {
+
+    @Param({"10", "100"})
+    public int depth;
+
+    private long id = 999L;
+
+    @Benchmark
+    public Object runtimeException() {
+        try {
+            return throwAt(depth, true);
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object userNotFoundException() {
+        try {
+            return throwAt(depth, false);
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    private Object throwAt(int remaining, boolean legacy) {
+        if (remaining > 0) {
+            return throwAt(remaining - 1, legacy);
+        }
+        if (legacy) {
+            throw new RuntimeException("User not found with id: " + id);
+        }
+        throw new UserNotFoundException(id);
+    }
+}
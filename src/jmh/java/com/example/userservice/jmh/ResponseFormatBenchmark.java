@@ -0,0 +1,106 @@
+package com.example.userservice.jmh;
+
+import com.example.userservice.controller.UserProtobufHttpMessageConverter;
+import com.example.userservice.dto.UserPageResponse;
+import com.example.userservice.dto.UserResponse;
+import com.github.luben.zstd.RecyclingBufferPool;
+import com.github.luben.zstd.ZstdOutputStream;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Страница пользователей (как ответ GET /api/users) в каждом формате ответа: время сериализации
+ * и, при compression != none, сжатия тем же алгоритмом, что ResponseCompressionFilter.
+ * Размер тела в байтах печатается при подготовке каждой комбинации параметров.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseFormatBenchmark {
+
+    @Param({"json", "cbor", "smile", "protobuf"})
+    public String format;
+
+    @Param({"20", "500"})
+    public int size;
+
+    @Param({"none", "gzip", "zstd"})
+    public String compression;
+
+    private ObjectMapper mapper;
+    private UserProtobufHttpMessageConverter protobufConverter;
+    private UserPageResponse page;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = switch (format) {
+            case "json" -> JsonMapper.builder().build();
+            case "cbor" -> CBORMapper.builder().build();
+            case "smile" -> SmileMapper.builder().build();
+            default -> null;
+        };
+        protobufConverter = new UserProtobufHttpMessageConverter();
+
+        // Реалистичные данные: разные имена, домены, возрасты и время создания в пределах года
+        Random random = new Random(42);
+        String[] firstNames = {"Alexander", "Maria", "Ivan", "Olga", "Dmitry", "Ekaterina", "Sergey", "Anna"};
+        String[] lastNames = {"Ivanov", "Smirnova", "Kuznetsov", "Popova", "Sokolov", "Lebedeva", "Kozlov", "Novikova"};
+        String[] domains = {"example.com", "mail.example.org", "corp.example.net", "users.example.io"};
+        LocalDateTime now = LocalDateTime.now();
+        List<UserResponse> users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String first = firstNames[random.nextInt(firstNames.length)];
+            String last = lastNames[random.nextInt(lastNames.length)];
+            users.add(new UserResponse(
+                    100_000L + i,
+                    first + " " + last,
+                    first.toLowerCase() + "." + last.toLowerCase() + random.nextInt(10_000) + "@" + domains[random.nextInt(domains.length)],
+                    18 + random.nextInt(60),
+                    now.minusSeconds(random.nextInt(365 * 24 * 3600)).minusNanos(random.nextInt(1_000_000_000))));
+        }
+        page = new UserPageResponse(users, 100_000L + size - 1);
+
+        System.out.printf("%n[payload] format=%s size=%d compression=%s: %d bytes%n",
+                format, size, compression, serialize().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        if (compression.equals("none")) {
+            return encode();
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = compression.equals("gzip")
+                ? new GZIPOutputStream(bytes, 8192)
+                : new ZstdOutputStream(bytes, RecyclingBufferPool.INSTANCE)) {
+            out.write(encode());
+        }
+        return bytes.toByteArray();
+    }
+
+    private byte[] encode() throws IOException {
+        if (mapper != null) {
+            return mapper.writeValueAsBytes(page);
+        }
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        protobufConverter.write(page, UserProtobufHttpMessageConverter.APPLICATION_PROTOBUF, message);
+        return message.getBodyAsBytes();
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.userservice.jmh;
+
+import com.example.userservice.controller.UserJsonWriter;
+import com.example.userservice.controller.UserResponseJsonSerializer;
+import com.example.userservice.dto.UserResponse;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.SequenceWriter;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.module.SimpleModule;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запись {@code size} пользователей в JSON (в поток, без буферизации тела), запускать с -prof gc:
+ * <ul>
+ *   <li>beanSerializer — прежний путь: DTO на строку и сериализатор бинов Jackson (выгрузка через SequenceWriter);</li>
+ *   <li>userSerializer — те же DTO через UserResponseJsonSerializer (страница списка, выборка по id);</li>
+ *   <li>rowWriter — значения строки сразу в UserJsonWriter, как в выгрузке /export.</li>
+ * </ul>
+ * Аллокации на пользователя — gc.alloc.rate.norm, делённый на size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserJsonWriterBenchmark {
+
+    @Param({"500", "10000"})
+    public int size;
+
+    // Генератор закрывает поток вместе с собой; nullOutputStream() после close() бросает исключение
+    private final OutputStream out = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    private ObjectWriter beanWriter;
+    private ObjectWriter userSerializerWriter;
+    private ObjectWriter rowGeneratorWriter;
+    private List<UserResponse> users;
+
+    // Столбцы «результата запроса» для rowWriter
+    private long[] ids;
+    private String[] names;
+    private String[] emails;
+    private int[] ages;
+    private LocalDateTime[] createdAts;
+
+    @Setup
+    public void setUp() {
+        JsonMapper mapper = JsonMapper.builder().build();
+        beanWriter = mapper.writer().withRootValueSeparator("\n");
+        userSerializerWriter = JsonMapper.builder()
+                .addModule(new SimpleModule().addSerializer(UserResponse.class, new UserResponseJsonSerializer()))
+                .build()
+                .writer().withRootValueSeparator("\n");
+        rowGeneratorWriter = mapper.writer().withRootValueSeparator("\n");
+
+        LocalDateTime now = LocalDateTime.now();
+        users = new ArrayList<>(size);
+        ids = new long[size];
+        names = new String[size];
+        emails = new String[size];
+        ages = new int[size];
+        createdAts = new LocalDateTime[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = 100_000L + i;
+            names[i] = "User " + i;
+            emails[i] = "user" + i + "@example.com";
+            ages[i] = 18 + i % 60;
+            createdAts[i] = now.minusSeconds(i * 37L).minusNanos(i * 1_001L);
+            users.add(new UserResponse(ids[i], names[i], emails[i], ages[i], createdAts[i]));
+        }
+    }
+
+    @Benchmark
+    public void beanSerializer() {
+        try (SequenceWriter writer = beanWriter.writeValues(out)) {
+            for (int i = 0; i < size; i++) {
+                // Как при выгрузке через JPQL-проекцию: новый DTO на каждую строку
+                writer.write(new UserResponse(ids[i], names[i], emails[i], ages[i], createdAts[i]));
+            }
+        }
+    }
+
+    @Benchmark
+    public void userSerializer() {
+        try (SequenceWriter writer = userSerializerWriter.writeValues(out)) {
+            for (UserResponse user : users) {
+                writer.write(user);
+            }
+        }
+    }
+
+    @Benchmark
+    public void rowWriter() {
+        try (JsonGenerator generator = rowGeneratorWriter.createGenerator(out)) {
+            UserJsonWriter writer = new UserJsonWriter();
+            for (int i = 0; i < size; i++) {
+                writer.write(generator, ids[i], names[i], emails[i], ages[i], createdAts[i]);
+            }
+        }
+    }
+}
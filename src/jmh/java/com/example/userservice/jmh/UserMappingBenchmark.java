@@ -0,0 +1,35 @@
+package com.example.userservice.jmh;
+
+import com.example.userservice.dto.UserResponse;
+import com.example.userservice.entity.User;
+import com.example.userservice.service.UserMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость {@link UserMapper#toResponse} — копирования сущности в DTO.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserMappingBenchmark {
+
+    private User user;
+
+    @Setup
+    public void setUp() {
+        user = new User("Анна Иванова", "anna.ivanova@example.com", 28);
+        user.setId(42L);
+        user.setCreatedAt(LocalDateTime.now());
+    }
+
+    @Benchmark
+    public UserResponse toResponse() {
+        return UserMapper.toResponse(user);
+    }
+}
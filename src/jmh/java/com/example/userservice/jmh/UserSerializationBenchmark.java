@@ -0,0 +1,44 @@
+package com.example.userservice.jmh;
+
+import com.example.userservice.dto.UserResponse;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация списка {@link UserResponse} в JSON тем же Jackson, что и в контроллере.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserSerializationBenchmark {
+
+    @Param({"1", "20", "500", "10000"})
+    public int size;
+
+    private ObjectWriter writer;
+    private List<UserResponse> users;
+
+    @Setup
+    public void setUp() {
+        writer = JsonMapper.builder().build().writerFor(List.class);
+        LocalDateTime createdAt = LocalDateTime.now();
+        users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            users.add(new UserResponse((long) i, "User " + i, "user" + i + "@example.com", 18 + i % 60, createdAt));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeList() {
+        return writer.writeValueAsBytes(users);
+    }
+}
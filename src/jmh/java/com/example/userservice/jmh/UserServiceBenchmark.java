@@ -0,0 +1,74 @@
+package com.example.userservice.jmh;
+
+import com.example.userservice.UserServiceApplication;
+import com.example.userservice.dto.UserRequest;
+import com.example.userservice.dto.UserResponse;
+import com.example.userservice.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Полный путь createUser/getUserById через Spring-прокси (транзакции, кеш) на встроенной H2.
+ * Параметр cache позволяет сравнить getUserById с кешем Caffeine и без него.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserServiceBenchmark {
+
+    private static final int SEED_USERS = 1_000;
+
+    @Param({"caffeine", "none"})
+    public String cache;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private long[] ids;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong cursor = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(UserServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(
+                        "spring.cache.type=" + cache,
+                        "logging.level.org.hibernate.SQL=WARN",
+                        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN")
+                .run();
+        userService = context.getBean(UserService.class);
+
+        ids = new long[SEED_USERS];
+        for (int i = 0; i < SEED_USERS; i++) {
+            ids[i] = userService.createUser(request("seed-" + i)).getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserResponse createUser() {
+        return userService.createUser(request("bench-" + sequence.incrementAndGet()));
+    }
+
+    @Benchmark
+    public UserResponse getUserById() {
+        return userService.getUserById(ids[(int) (cursor.incrementAndGet() % SEED_USERS)]);
+    }
+
+    private static UserRequest request(String key) {
+        return new UserRequest("User " + key, key + "@example.com", 30);
+    }
+}
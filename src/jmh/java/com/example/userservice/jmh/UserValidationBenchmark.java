@@ -0,0 +1,51 @@
+package com.example.userservice.jmh;
+
+import com.example.userservice.dto.UserRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bean Validation {@link UserRequest}: корректный запрос и запрос с нарушениями всех ограничений.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserValidationBenchmark {
+
+    private ValidatorFactory factory;
+    private Validator validator;
+    private UserRequest valid;
+    private UserRequest invalid;
+
+    @Setup
+    public void setUp() {
+        factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+        valid = new UserRequest("Анна Иванова", "anna.ivanova@example.com", 28);
+        invalid = new UserRequest("", "not-an-email", -1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<UserRequest>> validRequest() {
+        return validator.validate(valid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<UserRequest>> invalidRequest() {
+        return validator.validate(invalid);
+    }
+}
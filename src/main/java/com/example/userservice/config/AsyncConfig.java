@@ -0,0 +1,16 @@
+package com.example.userservice.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Фоновые задачи выполняются на автоконфигурированном applicationTaskExecutor.
+ * При {@code spring.threads.virtual.enabled=true} (профиль virtual-threads) это виртуальные потоки.
+ * Периодические задачи (сверка UserStatistics) — на автоконфигурированном планировщике.
+ */
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class AsyncConfig {
+}
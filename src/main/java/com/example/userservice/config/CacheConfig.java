@@ -0,0 +1,19 @@
+package com.example.userservice.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Кеш пользователей включается свойством {@code spring.cache.type}: {@code caffeine} — включён,
+ * {@code none} — выключен. Размер и TTL задаются в {@code spring.cache.caffeine.spec}.
+ *
+ * Кеширующий advice стоит снаружи транзакционного: попадание в кеш не открывает транзакцию,
+ * а вытеснение при записи выполняется уже после коммита.
+ */
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+
+    public static final String USERS_CACHE = "users";
+}
@@ -0,0 +1,24 @@
+package com.example.userservice.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.config.annotation.ContentNegotiationConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Формат ответа выбирается по Accept: application/json, application/cbor, application/x-jackson-smile
+ * (конвертеры Spring подключаются по наличию jackson-dataformat-*) или application/x-protobuf
+ * (UserProtobufHttpMessageConverter).
+ *
+ * Без Accept или с {@code Accept: *}{@code /*} ответ — JSON: иначе выиграл бы конвертер Protobuf,
+ * который как бин стоит в списке раньше стандартных.
+ */
+@Configuration
+public class ContentNegotiationConfig implements WebMvcConfigurer {
+
+    @Override
+    public void configureContentNegotiation(ContentNegotiationConfigurer configurer) {
+        // ALL следом за JSON: эндпоинты с другим produces (NDJSON-выгрузка) по-прежнему доступны без Accept
+        configurer.defaultContentType(MediaType.APPLICATION_JSON, MediaType.ALL);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.userservice.config;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ограничивает число одновременно обрабатываемых запросов к /api/**.
+ *
+ * С виртуальными потоками Tomcat больше не ограничивает параллелизм размером пула,
+ * и тысячи запросов выстраиваются в очередь HikariCP, ожидая соединение до connection-timeout.
+ * Фильтр пропускает к БД не больше {@code max-concurrent} запросов, а остальным после
+ * короткого ожидания сразу отвечает 503 с Retry-After.
+ */
+@Component
+@ConditionalOnProperty(name = "user-service.db-bulkhead.enabled", havingValue = "true")
+public class DatabaseBulkheadFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMillis;
+
+    public DatabaseBulkheadFilter(
+            @Value("${user-service.db-bulkhead.max-concurrent:40}") int maxConcurrent,
+            @Value("${user-service.db-bulkhead.acquire-timeout:500ms}") Duration acquireTimeout) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.acquireTimeoutMillis = acquireTimeout.toMillis();
+    }
+
+    // Поток SSE открыт часами и соединение БД не держит: он не должен занимать разрешение
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return !request.getRequestURI().startsWith("/api/")
+                || (accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!tryAcquire()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"status\":503,\"message\":\"Too many concurrent requests\"}");
+            return;
+        }
+
+        boolean releaseNow = true;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // Потоковая выгрузка продолжает читать БД после возврата из фильтра
+                request.getAsyncContext().addListener(new ReleasingListener());
+                releaseNow = false;
+            }
+        } finally {
+            if (releaseNow) {
+                permits.release();
+            }
+        }
+    }
+
+    int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    private boolean tryAcquire() {
+        try {
+            return permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private class ReleasingListener implements AsyncListener {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void onComplete(AsyncEvent event) { release(); }
+
+        @Override
+        public void onTimeout(AsyncEvent event) { release(); }
+
+        @Override
+        public void onError(AsyncEvent event) { release(); }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {}
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.userservice.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Статистика Hibernate ({@code hibernate.generate_statistics=true}) в виде метрик hibernate.*.
+ * Для Hibernate 7 нет готового модуля hibernate-micrometer, поэтому основные счётчики публикуются здесь.
+ */
+public class HibernateStatisticsMetrics implements MeterBinder {
+
+    private final Statistics statistics;
+
+    public HibernateStatisticsMetrics(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        counter(registry, "hibernate.statements", "JDBC statements prepared", Statistics::getPrepareStatementCount);
+        counter(registry, "hibernate.connections.obtained", "JDBC connections obtained", Statistics::getConnectCount);
+        counter(registry, "hibernate.flushes", "Session flushes", Statistics::getFlushCount);
+        counter(registry, "hibernate.transactions", "Completed transactions", Statistics::getTransactionCount);
+        counter(registry, "hibernate.query.executions", "HQL/SQL queries executed", Statistics::getQueryExecutionCount);
+        counter(registry, "hibernate.entities.loaded", "Entities loaded", Statistics::getEntityLoadCount);
+        counter(registry, "hibernate.entities.fetched", "Entities fetched by id", Statistics::getEntityFetchCount);
+        counter(registry, "hibernate.entities.inserted", "Entities inserted", Statistics::getEntityInsertCount);
+        counter(registry, "hibernate.entities.updated", "Entities updated", Statistics::getEntityUpdateCount);
+        counter(registry, "hibernate.entities.deleted", "Entities deleted", Statistics::getEntityDeleteCount);
+        counter(registry, "hibernate.optimistic.failures", "Optimistic lock failures", Statistics::getOptimisticFailureCount);
+        Gauge.builder("hibernate.query.execution.max", statistics, Statistics::getQueryExecutionMaxTime)
+                .description("Slowest query execution time in milliseconds")
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+
+    private void counter(MeterRegistry registry, String name, String description, ToDoubleFunction<Statistics> value) {
+        FunctionCounter.builder(name, statistics, value)
+                .description(description)
+                .register(registry);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.userservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import javax.sql.DataSource;
+
+/**
+ * Метрики сверх автоконфигурации: число SQL-операторов на HTTP-запрос и статистика Hibernate.
+ *
+ * Задержки UserService (@Timed, метрика user.service), http.server.requests и ожидание соединения
+ * HikariCP публикуются автоматически; перцентили задаются в {@code management.metrics.distribution},
+ * выгрузка — /actuator/prometheus.
+ */
+@Configuration
+@Profile("!reactive")
+public class MetricsConfig {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    @Bean
+    public SqlStatementCounter sqlStatementCounter() {
+        return new SqlStatementCounter();
+    }
+
+    // Операторы считаются на уровне JDBC: оборачивается DataSource приложения (пул HikariCP или, с репликами,
+    // маршрутизирующий прокси), так что учитывается и JDBC в обход Hibernate (Session.doWork)
+    @Bean
+    public static BeanPostProcessor sqlStatementCountingDataSourcePostProcessor(
+            ObjectProvider<SqlStatementCounter> counter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && DATA_SOURCE_BEAN.equals(beanName)) {
+                    return new SqlStatementCountingDataSource(dataSource, counter.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public HibernateStatisticsMetrics hibernateStatisticsMetrics(EntityManagerFactory entityManagerFactory) {
+        return new HibernateStatisticsMetrics(entityManagerFactory);
+    }
+
+    @Bean
+    public SqlStatementMetricsFilter sqlStatementMetricsFilter(SqlStatementCounter counter, MeterRegistry registry) {
+        return new SqlStatementMetricsFilter(counter, registry);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.userservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Чтение с реплик: транзакции {@code readOnly = true} получают соединение из пулов
+ * {@code user-service.read-replicas.urls}, остальные — из пула основной БД ({@code spring.datasource}).
+ *
+ * Признак readOnly транзакция выставляет уже после открытия соединения, поэтому DataSource приложения —
+ * {@link LazyConnectionDataSourceProxy}: физическое соединение берётся при первом запросе,
+ * и прокси выбирает пул по {@code Connection.setReadOnly}. Настройки {@code spring.datasource.hikari.*}
+ * применяются ко всем пулам; учётные данные реплик по умолчанию те же, что у основной БД.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "user-service.read-replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    private static final String HIKARI_PREFIX = "spring.datasource.hikari";
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            DataSourceProperties properties,
+            Environment environment,
+            MeterRegistry meterRegistry,
+            @Value("${user-service.read-replicas.username:${spring.datasource.username:}}") String username,
+            @Value("${user-service.read-replicas.password:${spring.datasource.password:}}") String password) {
+        Binder binder = Binder.get(environment);
+        List<String> urls = binder.bind("user-service.read-replicas.urls", Bindable.listOf(String.class))
+                .orElseThrow(() -> new IllegalStateException("user-service.read-replicas.urls is not set"));
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind(HIKARI_PREFIX, Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+
+        List<HikariDataSource> replicas = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(url)
+                    .username(username)
+                    .password(password)
+                    .build();
+            binder.bind(HIKARI_PREFIX, Bindable.ofInstance(replica));
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setReadOnly(true);
+            // Метрики hikaricp.* Spring Boot регистрирует только для пула основной БД
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(replicaRoutingDataSource.getPrimary());
+        dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+        return dataSource;
+    }
+}
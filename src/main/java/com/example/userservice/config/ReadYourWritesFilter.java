@@ -0,0 +1,99 @@
+package com.example.userservice.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Окно read-your-writes: клиент, только что изменивший данные, ещё {@code read-your-writes-window}
+ * читает из основной БД, а не с реплики, которая могла не получить его запись.
+ *
+ * Запрос на изменение /api/** получает cookie с моментом окончания окна (ставится до обработки:
+ * после записи тела ответа заголовки уже не добавить). Запросы с непросроченной cookie
+ * помечают поток {@link ReplicaRoutingDataSource#setPrimaryOnly(boolean)}. Окно 0 — выключено.
+ * POST, которые только читают ({@link #READ_ONLY_POSTS}), запросом на изменение не считаются.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "user-service.read-replicas.enabled", havingValue = "true")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE_NAME = "read-primary-until";
+
+    // POST вместо GET ради длинного тела запроса (выборка по списку id)
+    static final Set<String> READ_ONLY_POSTS = Set.of("/api/users/lookup");
+
+    private final long windowMillis;
+
+    public ReadYourWritesFilter(@Value("${user-service.read-replicas.read-your-writes-window:2s}") Duration window) {
+        this.windowMillis = window.toMillis();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return windowMillis <= 0 || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        boolean write = !isSafe(request.getMethod()) && !isReadOnlyPost(request);
+        if (write) {
+            Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(now + windowMillis));
+            cookie.setPath("/api");
+            cookie.setMaxAge((int) Math.ceilDiv(windowMillis, 1000));
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+        }
+
+        if (!write && primaryUntil(request) <= now) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        ReplicaRoutingDataSource.setPrimaryOnly(true);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.setPrimaryOnly(false);
+        }
+    }
+
+    private static boolean isSafe(String method) {
+        return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) || HttpMethod.OPTIONS.matches(method);
+    }
+
+    private static boolean isReadOnlyPost(HttpServletRequest request) {
+        return HttpMethod.POST.matches(request.getMethod())
+                && READ_ONLY_POSTS.contains(request.getRequestURI());
+    }
+
+    private static long primaryUntil(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
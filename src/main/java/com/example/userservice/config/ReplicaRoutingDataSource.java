@@ -0,0 +1,104 @@
+package com.example.userservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Источник соединений для читающих транзакций: пулы реплик по кругу (round-robin).
+ *
+ * Основная БД вместо реплики используется, когда поток помечен {@link #setPrimaryOnly(boolean)}
+ * (окно read-your-writes после записи клиента) или реплика не выдала соединение.
+ * Закрывает и пулы реплик, и пул основной БД.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    private final HikariDataSource primary;
+    private final List<HikariDataSource> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("At least one read replica is required");
+        }
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+    }
+
+    // Чтения текущего потока (до сброса) идут в основную БД
+    public static void setPrimaryOnly(boolean primaryOnly) {
+        if (primaryOnly) {
+            PRIMARY_ONLY.set(Boolean.TRUE);
+        } else {
+            PRIMARY_ONLY.remove();
+        }
+    }
+
+    public static boolean isPrimaryOnly() {
+        return PRIMARY_ONLY.get() != null;
+    }
+
+    /**
+     * Выполняет {@code work} с чтением из основной БД — для загрузок, которым отставание реплики недопустимо
+     * (фильтр email, сверка статистики). Без реплик флаг ни на что не влияет.
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        boolean primaryOnly = isPrimaryOnly();
+        setPrimaryOnly(true);
+        try {
+            return work.get();
+        } finally {
+            setPrimaryOnly(primaryOnly);
+        }
+    }
+
+    public HikariDataSource getPrimary() {
+        return primary;
+    }
+
+    public List<HikariDataSource> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (isPrimaryOnly()) {
+            return primary.getConnection();
+        }
+        HikariDataSource replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            log.warn("Read replica {} is unavailable, reading from primary: {}", replica.getPoolName(), e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    // Явные учётные данные — не чтение с реплики: соединение выдаёт пул основной БД. Пул открыт со своими
+    // учётными данными; с другими Hikari соединение не выдаёт (SQLFeatureNotSupportedException)
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (Objects.equals(username, primary.getUsername()) && Objects.equals(password, primary.getPassword())) {
+            return primary.getConnection();
+        }
+        return primary.getConnection(username, password);
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+        primary.close();
+    }
+}
@@ -0,0 +1,350 @@
+package com.example.userservice.config;
+
+import com.github.luben.zstd.RecyclingBufferPool;
+import com.github.luben.zstd.ZstdOutputStream;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Сжимает ответы /api/** алгоритмом zstd или gzip — тем, что клиент принимает по Accept-Encoding
+ * (при равном q предпочитается zstd: он быстрее gzip при сопоставимой степени сжатия).
+ *
+ * Ответ копится в буфере до {@code min-response-size}: короткие ответы (один пользователь, ошибки)
+ * уходят как есть, с Content-Length — на них сжатие тратит CPU, почти не уменьшая размер.
+ * После порога ответ сжимается потоком, поэтому потоковая выгрузка /export тоже сжимается,
+ * не накапливаясь в памяти.
+ */
+@Component
+@ConditionalOnProperty(name = "user-service.compression.enabled", havingValue = "true", matchIfMissing = true)
+public class ResponseCompressionFilter extends OncePerRequestFilter {
+
+    static final String ZSTD = "zstd";
+    static final String GZIP = "gzip";
+
+    private static final List<MediaType> COMPRESSIBLE_TYPES = List.of(
+            MediaType.APPLICATION_JSON,
+            MediaType.APPLICATION_NDJSON,
+            MediaType.APPLICATION_CBOR,
+            new MediaType("application", "x-jackson-smile"),
+            new MediaType("application", "x-protobuf"));
+
+    private final int minResponseSize;
+
+    public ResponseCompressionFilter(@Value("${user-service.compression.min-response-size:2KB}") DataSize minResponseSize) {
+        this.minResponseSize = (int) minResponseSize.toBytes();
+    }
+
+    // Поток SSE не сжимается: порог буферизации задержал бы события
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return !request.getRequestURI().startsWith("/api/")
+                || (accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE));
+    }
+
+    // Потоковая выгрузка дописывается в асинхронном режиме: сжатие завершается при повторной диспетчеризации
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        CompressingResponse compressingResponse = WebUtils.getNativeResponse(response, CompressingResponse.class);
+        if (compressingResponse == null) {
+            String encoding = negotiateEncoding(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (encoding == null) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            compressingResponse = new CompressingResponse(response, encoding, minResponseSize);
+        }
+
+        filterChain.doFilter(request, compressingResponse);
+        if (!request.isAsyncStarted()) {
+            compressingResponse.finish();
+        }
+    }
+
+    /**
+     * Выбирает zstd или gzip по Accept-Encoding с учётом q-значений; {@code null} — сжимать нельзя.
+     */
+    static String negotiateEncoding(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        double zstd = -1;
+        double gzip = -1;
+        double any = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim().toLowerCase();
+            double q = 1;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            switch (coding) {
+                case ZSTD -> zstd = q;
+                case GZIP, "x-gzip" -> gzip = q;
+                case "*" -> any = q;
+                default -> { }
+            }
+        }
+        // «*» относится только к кодировкам, не названным явно
+        if (zstd < 0) {
+            zstd = any;
+        }
+        if (gzip < 0) {
+            gzip = any;
+        }
+        if (zstd <= 0 && gzip <= 0) {
+            return null;
+        }
+        return zstd >= gzip ? ZSTD : GZIP;
+    }
+
+    static boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            return COMPRESSIBLE_TYPES.stream().anyMatch(type -> type.includes(mediaType));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Обёртка ответа: до порога пишет в буфер, после — в сжимающий поток поверх ответа контейнера.
+     */
+    static class CompressingResponse extends HttpServletResponseWrapper {
+
+        private final String encoding;
+        private final int threshold;
+        private ByteArrayOutputStream buffer;
+        // Поток, куда идут данные после решения о сжатии: сжимающий либо сам ответ
+        private OutputStream target;
+        private boolean compressing;
+        private ThresholdOutputStream outputStream;
+        private PrintWriter writer;
+        private boolean finished;
+
+        CompressingResponse(HttpServletResponse response, String encoding, int threshold) {
+            super(response);
+            this.encoding = encoding;
+            this.threshold = threshold;
+            this.buffer = new ByteArrayOutputStream(Math.min(threshold, 8192));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called");
+            }
+            if (outputStream == null) {
+                outputStream = new ThresholdOutputStream();
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (outputStream != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called");
+                }
+                outputStream = new ThresholdOutputStream();
+                Charset charset = getCharacterEncoding() != null
+                        ? Charset.forName(getCharacterEncoding()) : StandardCharsets.ISO_8859_1;
+                writer = new PrintWriter(new OutputStreamWriter(outputStream, charset));
+            }
+            return writer;
+        }
+
+        // Длина известна только для несжатого ответа: её выставит finish()
+        @Override
+        public void setContentLength(int len) {
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (target != null) {
+                target.flush();
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            if (target != null) {
+                throw new IllegalStateException("Response has already been committed");
+            }
+            buffer.reset();
+            super.resetBuffer();
+        }
+
+        @Override
+        public void reset() {
+            resetBuffer();
+            super.reset();
+        }
+
+        void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            if (writer != null) {
+                writer.flush();
+            }
+            if (target == null) {
+                // Весь ответ уместился в буфер: отправляем без сжатия
+                if (buffer.size() > 0) {
+                    getResponse().setContentLength(buffer.size());
+                    buffer.writeTo(getResponse().getOutputStream());
+                }
+                buffer = null;
+                return;
+            }
+            // Сжимающий поток дописывает завершающий блок; поток контейнера закроет сам контейнер
+            if (compressing) {
+                target.close();
+            }
+        }
+
+        private void write(byte[] bytes, int offset, int length) throws IOException {
+            if (finished) {
+                throw new IOException("Response has already been finished");
+            }
+            if (target == null && buffer.size() + length <= threshold) {
+                buffer.write(bytes, offset, length);
+                return;
+            }
+            if (target == null) {
+                startTarget();
+            }
+            target.write(bytes, offset, length);
+        }
+
+        // Порог превышен: решаем, сжимать ли, и переносим накопленное в выбранный поток
+        private void startTarget() throws IOException {
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            compressing = isCompressible(response.getContentType())
+                    && response.getHeader(HttpHeaders.CONTENT_ENCODING) == null
+                    && response.getStatus() != HttpServletResponse.SC_NO_CONTENT
+                    && response.getStatus() != HttpServletResponse.SC_NOT_MODIFIED;
+            OutputStream out = response.getOutputStream();
+            if (compressing) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+                // Буферы zstd (~128 КБ) берутся из пула: их выделение дороже сжатия страницы из 20 пользователей
+                out = ZSTD.equals(encoding)
+                        ? new ZstdOutputStream(out, RecyclingBufferPool.INSTANCE)
+                        : new GZIPOutputStream(out, 8192, true);
+            }
+            target = out;
+            buffer.writeTo(target);
+            buffer = null;
+        }
+
+        private class ThresholdOutputStream extends ServletOutputStream {
+
+            @Override
+            public void write(int b) throws IOException {
+                CompressingResponse.this.write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                CompressingResponse.this.write(b, off, len);
+            }
+
+            // До порога flush() ничего не отправляет: иначе конвертеры, сбрасывающие поток
+            // после каждого ответа, зафиксировали бы его несжатым раньше, чем станет известен размер
+            @Override
+            public void flush() throws IOException {
+                if (target != null) {
+                    target.flush();
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                finish();
+            }
+
+            // Неблокирующий вывод идёт через поток контейнера: готовность и слушатель — его
+            @Override
+            public boolean isReady() {
+                try {
+                    return getResponse().getOutputStream().isReady();
+                } catch (IOException e) {
+                    return false;
+                }
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                try {
+                    getResponse().getOutputStream().setWriteListener(writeListener);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+}
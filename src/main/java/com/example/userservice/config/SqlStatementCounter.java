@@ -0,0 +1,61 @@
+package com.example.userservice.config;
+
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Считает SQL-операторы, выполненные в текущем потоке между {@link #start()} и {@link #stop()}.
+ * Операторы считает {@link SqlStatementCountingDataSource} на уровне JDBC, поэтому учтены и запросы Hibernate,
+ * и JDBC через {@code Session.doWork}. Вне этого окна (фоновые задачи, старт приложения) операторы не считаются.
+ *
+ * Как {@link TaskDecorator} счётчик переносится в задачи applicationTaskExecutor, запущенные из окна:
+ * так учитывается асинхронная часть запроса (потоковая выгрузка /export).
+ */
+public class SqlStatementCounter implements TaskDecorator {
+
+    private static final ThreadLocal<AtomicInteger> COUNT = new ThreadLocal<>();
+
+    /**
+     * Начинает счёт в текущем потоке; возвращённый счётчик продолжают задачи, запущенные до {@link #stop()}.
+     */
+    public AtomicInteger start() {
+        AtomicInteger count = new AtomicInteger();
+        COUNT.set(count);
+        return count;
+    }
+
+    public int stop() {
+        AtomicInteger count = COUNT.get();
+        COUNT.remove();
+        return count != null ? count.get() : 0;
+    }
+
+    public void statementExecuted() {
+        AtomicInteger count = COUNT.get();
+        if (count != null) {
+            count.incrementAndGet();
+        }
+    }
+
+    @Override
+    public Runnable decorate(Runnable task) {
+        AtomicInteger count = COUNT.get();
+        if (count == null) {
+            return task;
+        }
+        return () -> {
+            AtomicInteger previous = COUNT.get();
+            COUNT.set(count);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) {
+                    COUNT.set(previous);
+                } else {
+                    COUNT.remove();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.userservice.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DataSource приложения, считающий выполнения SQL-операторов для {@link SqlStatementCounter}:
+ * каждый вызов {@code execute*} у Statement, PreparedStatement и CallableStatement (пакет executeBatch —
+ * одно обращение к БД). Остальное делегируется пулу как есть; Spring Boot находит пул HikariCP
+ * за {@link DelegatingDataSource}, поэтому метрики hikaricp.* сохраняются.
+ */
+public class SqlStatementCountingDataSource extends DelegatingDataSource {
+
+    private final SqlStatementCounter counter;
+
+    public SqlStatementCountingDataSource(DataSource target, SqlStatementCounter counter) {
+        super(target);
+        this.counter = counter;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, obtainTargetDataSource().getConnection(), this::connectionCall);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, obtainTargetDataSource().getConnection(username, password), this::connectionCall);
+    }
+
+    private Object connectionCall(Object connection, Method method, Object[] args) throws Throwable {
+        Object result = invoke(connection, method, args);
+        return switch (method.getName()) {
+            case "createStatement" -> proxy(Statement.class, (Statement) result, this::statementCall);
+            case "prepareStatement" -> proxy(PreparedStatement.class, (PreparedStatement) result, this::statementCall);
+            case "prepareCall" -> proxy(CallableStatement.class, (CallableStatement) result, this::statementCall);
+            default -> result;
+        };
+    }
+
+    private Object statementCall(Object statement, Method method, Object[] args) throws Throwable {
+        if (method.getName().startsWith("execute")) {
+            counter.statementExecuted();
+        }
+        return invoke(statement, method, args);
+    }
+
+    private static <T> T proxy(Class<T> type, T target, Call call) {
+        InvocationHandler handler = (proxy, method, args) -> call.invoke(target, method, args);
+        return type.cast(Proxy.newProxyInstance(SqlStatementCountingDataSource.class.getClassLoader(),
+                new Class<?>[] {type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        Object invoke(Object target, Method method, Object[] args) throws Throwable;
+    }
+}
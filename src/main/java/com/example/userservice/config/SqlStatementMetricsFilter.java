@@ -0,0 +1,84 @@
+package com.example.userservice.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Записывает число SQL-операторов на запрос к /api/** в метрику {@code user.sql.statements}
+ * с тегами method и uri (шаблон маршрута, а не конкретный id). Асинхронный запрос записывается по завершении.
+ */
+public class SqlStatementMetricsFilter extends OncePerRequestFilter {
+
+    public static final String METRIC_NAME = "user.sql.statements";
+
+    private final SqlStatementCounter counter;
+    private final MeterRegistry registry;
+
+    public SqlStatementMetricsFilter(SqlStatementCounter counter, MeterRegistry registry) {
+        this.counter = counter;
+        this.registry = registry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AtomicInteger statements = counter.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            counter.stop();
+        }
+
+        // Потоковая выгрузка читает БД в другом потоке уже после выхода из фильтра: её операторы
+        // досчитываются там же (SqlStatementCounter как TaskDecorator), а записываются по завершении запроса
+        if (request.isAsyncStarted()) {
+            request.getAsyncContext().addListener(new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) {
+                    record(request, statements.get());
+                }
+
+                // После таймаута и ошибки контейнер тоже вызывает onComplete
+                @Override
+                public void onTimeout(AsyncEvent event) {
+                }
+
+                @Override
+                public void onError(AsyncEvent event) {
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                }
+            });
+            return;
+        }
+        record(request, statements.get());
+    }
+
+    private void record(HttpServletRequest request, int statements) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder(METRIC_NAME)
+                .description("SQL statements executed per request")
+                .tag("method", request.getMethod())
+                .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                .register(registry)
+                .record(statements);
+    }
+}
@@ -1,56 +1,169 @@
 package com.example.userservice.controller;
 
+import com.example.userservice.dto.UserBatchRequest;
+import com.example.userservice.dto.UserBatchResult;
+import com.example.userservice.dto.UserBulkDeleteResponse;
+import com.example.userservice.dto.UserChangePageResponse;
+import com.example.userservice.dto.UserFilter;
+import com.example.userservice.dto.UserMultiGetRequest;
+import com.example.userservice.dto.UserMultiGetResponse;
+import com.example.userservice.dto.UserPageResponse;
+import com.example.userservice.dto.UserPatchRequest;
 import com.example.userservice.dto.UserRequest;
 import com.example.userservice.dto.UserResponse;
+import com.example.userservice.dto.UserStatsResponse;
+import com.example.userservice.service.UserChangeFeed;
 import com.example.userservice.service.UserService;
+import com.example.userservice.service.UserStatistics;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/users")
 public class UserController {
 
     private final UserService userService;
+    private final UserStatistics userStatistics;
+    private final UserChangeFeed changeFeed;
+    private final JsonMapper jsonMapper;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, UserStatistics userStatistics, UserChangeFeed changeFeed,
+                          JsonMapper jsonMapper) {
         this.userService = userService;
+        this.userStatistics = userStatistics;
+        this.changeFeed = changeFeed;
+        this.jsonMapper = jsonMapper;
     }
 
     @PostMapping
     public ResponseEntity<UserResponse> createUser(@Valid @RequestBody UserRequest userRequest) {
         UserResponse userResponse = userService.createUser(userRequest);
-        return new ResponseEntity<>(userResponse, HttpStatus.CREATED);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(UserETags.eTag(userResponse)).body(userResponse);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<UserBatchResult>> processBatch(@Valid @RequestBody UserBatchRequest batchRequest) {
+        List<UserBatchResult> results = userService.processBatch(batchRequest.getOperations());
+        return ResponseEntity.ok(results);
     }
 
     @GetMapping
-    public ResponseEntity<List<UserResponse>> getAllUsers() {
-        List<UserResponse> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<UserPageResponse> getUsers(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + UserService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) Integer minAge,
+            @RequestParam(required = false) Integer maxAge,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdAfter,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdBefore) {
+        UserFilter filter = new UserFilter(minAge, maxAge, createdAfter, createdBefore);
+        UserPageResponse page = userService.getUsers(after, limit, filter);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<UserMultiGetResponse> getUsersByIds(@RequestParam List<Long> ids) {
+        UserMultiGetResponse response = userService.getUsersByIds(ids);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/lookup")
+    public ResponseEntity<UserMultiGetResponse> lookupUsers(@Valid @RequestBody UserMultiGetRequest lookupRequest) {
+        UserMultiGetResponse response = userService.getUsersByIds(lookupRequest.getIds());
+        return ResponseEntity.ok(response);
+    }
+
+    // Отвечает из счётчиков в памяти, без транзакции и обращения к БД
+    @GetMapping("/stats")
+    public ResponseEntity<UserStatsResponse> getStats(
+            @RequestParam(defaultValue = "30") int days) {
+        return ResponseEntity.ok(userStatistics.snapshot(days));
+    }
+
+    // Лента изменений: события после позиции since; 410, если они уже удалены
+    @GetMapping("/changes")
+    public ResponseEntity<UserChangePageResponse> getChanges(
+            @RequestParam(required = false) Long since,
+            @RequestParam(defaultValue = "" + UserChangeFeed.DEFAULT_PAGE_SIZE) int limit) {
+        return ResponseEntity.ok(changeFeed.getChanges(since, limit));
     }
 
+    // Та же лента потоком SSE; переподключившийся клиент продолжает с Last-Event-ID
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestParam(required = false) Long since,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return changeFeed.subscribe(lastEventId != null ? lastEventId : since);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        // Строки результата запроса пишутся прямо в генератор: без DTO и сериализатора бинов на каждого пользователя
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = jsonMapper.writer()
+                    .withRootValueSeparator("\n")
+                    .createGenerator(outputStream)) {
+                UserJsonWriter writer = new UserJsonWriter();
+                userService.exportUsers((id, name, email, age, createdAt) ->
+                        writer.write(generator, id, name, email, age, createdAt));
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // При совпадении If-None-Match с ETag Spring отвечает 304 без тела и без сериализации
     @GetMapping("/{id}")
     public ResponseEntity<UserResponse> getUserById(@PathVariable Long id) {
         UserResponse userResponse = userService.getUserById(id);
-        return ResponseEntity.ok(userResponse);
+        return ResponseEntity.ok().eTag(UserETags.eTag(userResponse)).body(userResponse);
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<UserResponse> updateUser(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody UserRequest userRequest) {
-        UserResponse userResponse = userService.updateUser(id, userRequest);
-        return ResponseEntity.ok(userResponse);
+        UserResponse userResponse = userService.updateUser(id, userRequest, UserETags.versionCondition(ifMatch));
+        return ResponseEntity.ok().eTag(UserETags.eTag(userResponse)).body(userResponse);
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<UserResponse> patchUser(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody UserPatchRequest patchRequest) {
+        UserResponse userResponse = userService.patchUser(id, patchRequest, UserETags.versionCondition(ifMatch));
+        return ResponseEntity.ok().eTag(UserETags.eTag(userResponse)).body(userResponse);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
-        userService.deleteUser(id);
+    public ResponseEntity<Void> deleteUser(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        userService.deleteUser(id, UserETags.versionCondition(ifMatch));
         return ResponseEntity.noContent().build();
     }
+
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<UserBulkDeleteResponse> deleteUsers(@RequestParam List<Long> ids) {
+        UserBulkDeleteResponse response = userService.deleteUsers(ids);
+        return ResponseEntity.ok(response);
+    }
 }
@@ -0,0 +1,44 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.dto.UserResponse;
+import com.example.userservice.dto.UserVersionCondition;
+import org.springframework.http.ETag;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ETag пользователя и разбор If-Match; общие для UserController и реактивного UserHandler.
+ */
+public final class UserETags {
+
+    private UserETags() {}
+
+    // Строгий ETag из версии строки: "3"
+    public static String eTag(UserResponse userResponse) {
+        return "\"" + userResponse.getVersion() + "\"";
+    }
+
+    // Условие из If-Match: null — заголовка нет; "*" — любая версия существующей строки; иначе версии
+    // из списка тегов ("1", "2"). Слабый или нечисловой тег не может совпасть со строгим и пропускается,
+    // поэтому список без подходящих тегов не совпадает ни с какой версией
+    public static UserVersionCondition versionCondition(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+        List<Long> versions = new ArrayList<>();
+        for (ETag tag : ETag.parse(ifMatch)) {
+            if (tag.isWildcard()) {
+                return UserVersionCondition.any();
+            }
+            if (!tag.weak()) {
+                try {
+                    versions.add(Long.parseLong(tag.tag()));
+                } catch (NumberFormatException e) {
+                    // Не версия пользователя
+                }
+            }
+        }
+        return UserVersionCondition.anyOf(versions);
+    }
+}
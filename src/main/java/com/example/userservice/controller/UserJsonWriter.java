@@ -0,0 +1,131 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.dto.UserResponse;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.SerializableString;
+import tools.jackson.core.io.SerializedString;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Запись пользователя в JSON напрямую через JsonGenerator, без обхода свойств UserResponse
+ * сериализатором Jackson: имена полей закодированы заранее, время форматируется в переиспользуемый
+ * буфер. Вывод совпадает с сериализацией UserResponse по умолчанию (поля по алфавиту, время в ISO-8601).
+ *
+ * Экземпляр хранит буфер времени и не потокобезопасен: один на запрос или поток.
+ */
+public final class UserJsonWriter {
+
+    private static final SerializableString AGE = new SerializedString("age");
+    private static final SerializableString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializableString EMAIL = new SerializedString("email");
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString NAME = new SerializedString("name");
+
+    // yyyy-MM-ddTHH:mm:ss.SSSSSSSSS
+    private static final int MAX_TIMESTAMP_LENGTH = 29;
+
+    private final char[] timestamp = new char[MAX_TIMESTAMP_LENGTH];
+
+    // Значения строки результата запроса; объекты на пользователя не создаются
+    public void write(JsonGenerator generator, long id, String name, String email, int age, LocalDateTime createdAt) {
+        generator.writeStartObject();
+        generator.writeName(AGE);
+        generator.writeNumber(age);
+        generator.writeName(CREATED_AT);
+        writeTimestamp(generator, createdAt);
+        generator.writeName(EMAIL);
+        generator.writeString(email);
+        generator.writeName(ID);
+        generator.writeNumber(id);
+        generator.writeName(NAME);
+        generator.writeString(name);
+        generator.writeEndObject();
+    }
+
+    public void write(JsonGenerator generator, UserResponse user) {
+        generator.writeStartObject();
+        generator.writeName(AGE);
+        if (user.getAge() != null) {
+            generator.writeNumber(user.getAge());
+        } else {
+            generator.writeNull();
+        }
+        generator.writeName(CREATED_AT);
+        writeTimestamp(generator, user.getCreatedAt());
+        generator.writeName(EMAIL);
+        generator.writeString(user.getEmail());
+        generator.writeName(ID);
+        if (user.getId() != null) {
+            generator.writeNumber(user.getId());
+        } else {
+            generator.writeNull();
+        }
+        generator.writeName(NAME);
+        generator.writeString(user.getName());
+        generator.writeEndObject();
+    }
+
+    private void writeTimestamp(JsonGenerator generator, LocalDateTime value) {
+        if (value == null) {
+            generator.writeNull();
+            return;
+        }
+        int length = format(value, timestamp);
+        if (length < 0) {
+            generator.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value));
+        } else {
+            generator.writeString(timestamp, 0, length);
+        }
+    }
+
+    /**
+     * Формат ISO_LOCAL_DATE_TIME (как у Jackson): секунды всегда, дробная часть без конечных нулей.
+     * Возвращает длину или -1 для года вне 0..9999 (его ISO пишет со знаком).
+     */
+    static int format(LocalDateTime value, char[] buffer) {
+        int year = value.getYear();
+        if (year < 0 || year > 9999) {
+            return -1;
+        }
+        buffer[0] = digit(year / 1000);
+        buffer[1] = digit(year / 100 % 10);
+        buffer[2] = digit(year / 10 % 10);
+        buffer[3] = digit(year % 10);
+        buffer[4] = '-';
+        twoDigits(buffer, 5, value.getMonthValue());
+        buffer[7] = '-';
+        twoDigits(buffer, 8, value.getDayOfMonth());
+        buffer[10] = 'T';
+        twoDigits(buffer, 11, value.getHour());
+        buffer[13] = ':';
+        twoDigits(buffer, 14, value.getMinute());
+        buffer[16] = ':';
+        twoDigits(buffer, 17, value.getSecond());
+
+        int nano = value.getNano();
+        if (nano == 0) {
+            return 19;
+        }
+        buffer[19] = '.';
+        for (int i = 28; i >= 20; i--) {
+            buffer[i] = digit(nano % 10);
+            nano /= 10;
+        }
+        int length = MAX_TIMESTAMP_LENGTH;
+        while (buffer[length - 1] == '0') {
+            length--;
+        }
+        return length;
+    }
+
+    private static void twoDigits(char[] buffer, int offset, int value) {
+        buffer[offset] = digit(value / 10);
+        buffer[offset + 1] = digit(value % 10);
+    }
+
+    private static char digit(int value) {
+        return (char) ('0' + value);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.dto.UserMultiGetResponse;
+import com.example.userservice.dto.UserPageResponse;
+import com.example.userservice.dto.UserResponse;
+import com.google.protobuf.CodedOutputStream;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Ответы /api/users в формате application/x-protobuf по схеме src/main/proto/user.proto.
+ *
+ * DTO кодируются напрямую через CodedOutputStream, без сгенерированных классов: не нужен protoc
+ * в сборке и промежуточная копия каждого пользователя. Номера полей должны совпадать со схемой.
+ * Только запись: тела запросов по-прежнему принимаются в JSON.
+ */
+@Component
+public class UserProtobufHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "x-protobuf");
+
+    private static final int BUFFER_SIZE = 8192;
+
+    public UserProtobufHttpMessageConverter() {
+        super(APPLICATION_PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == UserResponse.class || clazz == UserPageResponse.class || clazz == UserMultiGetResponse.class;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object value, HttpOutputMessage outputMessage) throws IOException {
+        CodedOutputStream output = CodedOutputStream.newInstance(outputMessage.getBody(), BUFFER_SIZE);
+        switch (value) {
+            case UserResponse user -> writeUserFields(output, user);
+            case UserPageResponse page -> {
+                writeUsers(output, 1, page.getContent());
+                if (page.getNext() != null) {
+                    output.writeInt64(2, page.getNext());
+                }
+            }
+            case UserMultiGetResponse result -> {
+                writeUsers(output, 1, result.getUsers());
+                if (result.getMissing() != null && !result.getMissing().isEmpty()) {
+                    int size = 0;
+                    for (Long id : result.getMissing()) {
+                        size += CodedOutputStream.computeInt64SizeNoTag(id);
+                    }
+                    // repeated int64 в proto3 упаковывается в одно поле
+                    output.writeTag(2, 2);
+                    output.writeUInt32NoTag(size);
+                    for (Long id : result.getMissing()) {
+                        output.writeInt64NoTag(id);
+                    }
+                }
+            }
+            default -> throw new IllegalArgumentException("Unsupported type: " + value.getClass());
+        }
+        output.flush();
+    }
+
+    private static void writeUsers(CodedOutputStream output, int fieldNumber, List<UserResponse> users) throws IOException {
+        if (users == null) {
+            return;
+        }
+        for (UserResponse user : users) {
+            output.writeTag(fieldNumber, 2);
+            output.writeUInt32NoTag(userSize(user));
+            writeUserFields(output, user);
+        }
+    }
+
+    // Поля со значением null (и значения по умолчанию proto3) не пишутся
+    private static void writeUserFields(CodedOutputStream output, UserResponse user) throws IOException {
+        if (user.getId() != null && user.getId() != 0) {
+            output.writeInt64(1, user.getId());
+        }
+        if (user.getName() != null && !user.getName().isEmpty()) {
+            output.writeString(2, user.getName());
+        }
+        if (user.getEmail() != null && !user.getEmail().isEmpty()) {
+            output.writeString(3, user.getEmail());
+        }
+        if (user.getAge() != null && user.getAge() != 0) {
+            output.writeInt32(4, user.getAge());
+        }
+        if (user.getCreatedAt() != null) {
+            output.writeInt64(5, toMicros(user.getCreatedAt()));
+        }
+    }
+
+    private static int userSize(UserResponse user) {
+        int size = 0;
+        if (user.getId() != null && user.getId() != 0) {
+            size += CodedOutputStream.computeInt64Size(1, user.getId());
+        }
+        if (user.getName() != null && !user.getName().isEmpty()) {
+            size += CodedOutputStream.computeStringSize(2, user.getName());
+        }
+        if (user.getEmail() != null && !user.getEmail().isEmpty()) {
+            size += CodedOutputStream.computeStringSize(3, user.getEmail());
+        }
+        if (user.getAge() != null && user.getAge() != 0) {
+            size += CodedOutputStream.computeInt32Size(4, user.getAge());
+        }
+        if (user.getCreatedAt() != null) {
+            size += CodedOutputStream.computeInt64Size(5, toMicros(user.getCreatedAt()));
+        }
+        return size;
+    }
+
+    static long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+}
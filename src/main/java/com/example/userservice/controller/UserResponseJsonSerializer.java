@@ -0,0 +1,27 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.dto.UserResponse;
+import org.springframework.boot.jackson.JsonComponent;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Сериализация UserResponse в ответах (страница списка, выборка по id, пользователь) через
+ * UserJsonWriter вместо сериализатора бинов Jackson. Регистрируется в JsonMapper приложения.
+ */
+@JsonComponent
+public class UserResponseJsonSerializer extends StdSerializer<UserResponse> {
+
+    // Буфер времени на поток: сериализатор общий для всех запросов
+    private static final ThreadLocal<UserJsonWriter> WRITERS = ThreadLocal.withInitial(UserJsonWriter::new);
+
+    public UserResponseJsonSerializer() {
+        super(UserResponse.class);
+    }
+
+    @Override
+    public void serialize(UserResponse value, JsonGenerator generator, SerializationContext context) {
+        WRITERS.get().write(generator, value);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.userservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+public class UserBatchOperation {
+
+    public enum Type { CREATE, UPDATE, DELETE }
+
+    @NotNull(message = "Operation type is required")
+    private Type type;
+
+    // Обязателен для UPDATE и DELETE
+    private Long id;
+
+    // Обязателен для CREATE и UPDATE
+    @Valid
+    private UserRequest user;
+
+    public UserBatchOperation() {}
+
+    public UserBatchOperation(Type type, Long id, UserRequest user) {
+        this.type = type;
+        this.id = id;
+        this.user = user;
+    }
+
+    public static UserBatchOperation create(UserRequest user) {
+        return new UserBatchOperation(Type.CREATE, null, user);
+    }
+
+    public static UserBatchOperation update(Long id, UserRequest user) {
+        return new UserBatchOperation(Type.UPDATE, id, user);
+    }
+
+    public static UserBatchOperation delete(Long id) {
+        return new UserBatchOperation(Type.DELETE, id, null);
+    }
+
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public UserRequest getUser() { return user; }
+    public void setUser(UserRequest user) { this.user = user; }
+}
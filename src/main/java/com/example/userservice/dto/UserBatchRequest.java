@@ -0,0 +1,25 @@
+package com.example.userservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class UserBatchRequest {
+
+    public static final int MAX_OPERATIONS = 1000;
+
+    @NotEmpty(message = "Operations are required")
+    @Size(max = MAX_OPERATIONS, message = "No more than 1000 operations per batch")
+    private List<@Valid UserBatchOperation> operations;
+
+    public UserBatchRequest() {}
+
+    public UserBatchRequest(List<UserBatchOperation> operations) {
+        this.operations = operations;
+    }
+
+    public List<UserBatchOperation> getOperations() { return operations; }
+    public void setOperations(List<UserBatchOperation> operations) { this.operations = operations; }
+}
@@ -0,0 +1,38 @@
+package com.example.userservice.dto;
+
+/**
+ * Результат одной операции пакета. {@code status} — HTTP-код, который вернул бы
+ * соответствующий одиночный запрос (201, 200, 204, 400, 404 или 409).
+ */
+public class UserBatchResult {
+    private int index;
+    private UserBatchOperation.Type type;
+    private int status;
+    private UserResponse user;
+    private String error;
+
+    public UserBatchResult() {}
+
+    public UserBatchResult(int index, UserBatchOperation.Type type, int status, UserResponse user, String error) {
+        this.index = index;
+        this.type = type;
+        this.status = status;
+        this.user = user;
+        this.error = error;
+    }
+
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    public UserBatchOperation.Type getType() { return type; }
+    public void setType(UserBatchOperation.Type type) { this.type = type; }
+
+    public int getStatus() { return status; }
+    public void setStatus(int status) { this.status = status; }
+
+    public UserResponse getUser() { return user; }
+    public void setUser(UserResponse user) { this.user = user; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
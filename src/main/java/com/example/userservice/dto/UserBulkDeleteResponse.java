@@ -0,0 +1,19 @@
+package com.example.userservice.dto;
+
+public class UserBulkDeleteResponse {
+    private int requested;
+    private int deleted;
+
+    public UserBulkDeleteResponse() {}
+
+    public UserBulkDeleteResponse(int requested, int deleted) {
+        this.requested = requested;
+        this.deleted = deleted;
+    }
+
+    public int getRequested() { return requested; }
+    public void setRequested(int requested) { this.requested = requested; }
+
+    public int getDeleted() { return deleted; }
+    public void setDeleted(int deleted) { this.deleted = deleted; }
+}
@@ -0,0 +1,25 @@
+package com.example.userservice.dto;
+
+import java.util.List;
+
+/**
+ * Страница ленты изменений. {@code next} — курсор для следующего запроса ({@code ?since=next}):
+ * позиция последнего события страницы, а если событий нет — переданный since.
+ */
+public class UserChangePageResponse {
+    private List<UserChangeResponse> changes;
+    private Long next;
+
+    public UserChangePageResponse() {}
+
+    public UserChangePageResponse(List<UserChangeResponse> changes, Long next) {
+        this.changes = changes;
+        this.next = next;
+    }
+
+    public List<UserChangeResponse> getChanges() { return changes; }
+    public void setChanges(List<UserChangeResponse> changes) { this.changes = changes; }
+
+    public Long getNext() { return next; }
+    public void setNext(Long next) { this.next = next; }
+}
@@ -0,0 +1,58 @@
+package com.example.userservice.dto;
+
+import com.example.userservice.entity.UserChange;
+
+import java.time.LocalDateTime;
+
+/**
+ * Событие ленты изменений. {@code position} — курсор: следующий запрос продолжает с {@code ?since=position}.
+ * Для CREATED и UPDATED передаётся состояние пользователя после изменения, для DELETED — только userId.
+ */
+public class UserChangeResponse {
+    private Long position;
+    private UserChange.Type type;
+    private Long userId;
+    private String name;
+    private String email;
+    private Integer age;
+    private Long version;
+    private LocalDateTime occurredAt;
+
+    public UserChangeResponse() {}
+
+    public UserChangeResponse(Long position, UserChange.Type type, Long userId, String name, String email,
+                              Integer age, Long version, LocalDateTime occurredAt) {
+        this.position = position;
+        this.type = type;
+        this.userId = userId;
+        this.name = name;
+        this.email = email;
+        this.age = age;
+        this.version = version;
+        this.occurredAt = occurredAt;
+    }
+
+    public Long getPosition() { return position; }
+    public void setPosition(Long position) { this.position = position; }
+
+    public UserChange.Type getType() { return type; }
+    public void setType(UserChange.Type type) { this.type = type; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public Integer getAge() { return age; }
+    public void setAge(Integer age) { this.age = age; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+    public void setOccurredAt(LocalDateTime occurredAt) { this.occurredAt = occurredAt; }
+}
@@ -0,0 +1,39 @@
+package com.example.userservice.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Фильтр списка пользователей. Любое условие может отсутствовать (null).
+ * Возраст — включительно с обеих сторон, время создания — полуинтервал [createdAfter, createdBefore).
+ */
+public class UserFilter {
+    private Integer minAge;
+    private Integer maxAge;
+    private LocalDateTime createdAfter;
+    private LocalDateTime createdBefore;
+
+    public UserFilter() {}
+
+    public UserFilter(Integer minAge, Integer maxAge, LocalDateTime createdAfter, LocalDateTime createdBefore) {
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+        this.createdAfter = createdAfter;
+        this.createdBefore = createdBefore;
+    }
+
+    public static UserFilter none() {
+        return new UserFilter();
+    }
+
+    public Integer getMinAge() { return minAge; }
+    public void setMinAge(Integer minAge) { this.minAge = minAge; }
+
+    public Integer getMaxAge() { return maxAge; }
+    public void setMaxAge(Integer maxAge) { this.maxAge = maxAge; }
+
+    public LocalDateTime getCreatedAfter() { return createdAfter; }
+    public void setCreatedAfter(LocalDateTime createdAfter) { this.createdAfter = createdAfter; }
+
+    public LocalDateTime getCreatedBefore() { return createdBefore; }
+    public void setCreatedBefore(LocalDateTime createdBefore) { this.createdBefore = createdBefore; }
+}
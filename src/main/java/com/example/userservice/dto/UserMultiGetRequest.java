@@ -0,0 +1,28 @@
+package com.example.userservice.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Тело POST /api/users/lookup — для списков id, не помещающихся в строку запроса.
+ */
+public class UserMultiGetRequest {
+
+    public static final int MAX_IDS = 10_000;
+
+    @NotEmpty(message = "Ids are required")
+    @Size(max = MAX_IDS, message = "No more than 10000 ids per request")
+    private List<@NotNull Long> ids;
+
+    public UserMultiGetRequest() {}
+
+    public UserMultiGetRequest(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public List<Long> getIds() { return ids; }
+    public void setIds(List<Long> ids) { this.ids = ids; }
+}
@@ -0,0 +1,25 @@
+package com.example.userservice.dto;
+
+import java.util.List;
+
+/**
+ * Результат выборки по списку id: найденные пользователи в порядке запроса
+ * и id, которых нет в базе (тоже в порядке запроса).
+ */
+public class UserMultiGetResponse {
+    private List<UserResponse> users;
+    private List<Long> missing;
+
+    public UserMultiGetResponse() {}
+
+    public UserMultiGetResponse(List<UserResponse> users, List<Long> missing) {
+        this.users = users;
+        this.missing = missing;
+    }
+
+    public List<UserResponse> getUsers() { return users; }
+    public void setUsers(List<UserResponse> users) { this.users = users; }
+
+    public List<Long> getMissing() { return missing; }
+    public void setMissing(List<Long> missing) { this.missing = missing; }
+}
@@ -0,0 +1,25 @@
+package com.example.userservice.dto;
+
+import java.util.List;
+
+/**
+ * Страница пользователей при keyset-пагинации.
+ * {@code next} — курсор для следующего запроса ({@code ?after=next}), {@code null} на последней странице.
+ */
+public class UserPageResponse {
+    private List<UserResponse> content;
+    private Long next;
+
+    public UserPageResponse() {}
+
+    public UserPageResponse(List<UserResponse> content, Long next) {
+        this.content = content;
+        this.next = next;
+    }
+
+    public List<UserResponse> getContent() { return content; }
+    public void setContent(List<UserResponse> content) { this.content = content; }
+
+    public Long getNext() { return next; }
+    public void setNext(Long next) { this.next = next; }
+}
@@ -0,0 +1,41 @@
+package com.example.userservice.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Частичное обновление пользователя: поля со значением {@code null} не меняются.
+ */
+public class UserPatchRequest {
+
+    @Pattern(regexp = ".*\\S.*", message = "Name must not be blank")
+    @Size(max = 100, message = "Name must be at most 100 characters")
+    private String name;
+
+    @Email(message = "Email should be valid")
+    @Pattern(regexp = ".*\\S.*", message = "Email must not be blank")
+    @Size(max = 150, message = "Email must be at most 150 characters")
+    private String email;
+
+    @Min(value = 0, message = "Age must be greater than or equal to 0")
+    private Integer age;
+
+    public UserPatchRequest() {}
+
+    public UserPatchRequest(String name, String email, Integer age) {
+        this.name = name;
+        this.email = email;
+        this.age = age;
+    }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public Integer getAge() { return age; }
+    public void setAge(Integer age) { this.age = age; }
+}
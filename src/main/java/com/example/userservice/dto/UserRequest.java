@@ -4,14 +4,17 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 public class UserRequest {
 
     @NotBlank(message = "Name is required")
+    @Size(max = 100, message = "Name must be at most 100 characters")
     private String name;
 
     @Email(message = "Email should be valid")
     @NotBlank(message = "Email is required")
+    @Size(max = 150, message = "Email must be at most 150 characters")
     private String email;
 
     @NotNull(message = "Age is required")
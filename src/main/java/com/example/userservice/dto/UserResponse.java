@@ -1,36 +1,53 @@
 package com.example.userservice.dto;
 
-import java.time.LocalDateTime;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
-public class UserResponse {
-    private Long id;
-    private String name;
-    private String email;
-    private Integer age;
-    private LocalDateTime createdAt;
+import java.time.LocalDateTime;
 
-    public UserResponse() {}
+/**
+ * Неизменяемое представление пользователя. Один экземпляр хранится в кеше users и отдаётся всем
+ * потокам, дождавшимся общей загрузки (SingleFlight), поэтому изменить его после создания нельзя.
+ */
+// Поля по алфавиту, как до появления конструктора: иначе Jackson ставит его параметры первыми (и UserJsonWriter)
+@JsonPropertyOrder({"age", "createdAt", "email", "id", "name"})
+public final class UserResponse {
+    private final Long id;
+    private final String name;
+    private final String email;
+    private final Integer age;
+    private final LocalDateTime createdAt;
+    // Передаётся клиенту только заголовком ETag
+    @JsonIgnore
+    private final Long version;
+
+    @JsonCreator
+    public UserResponse(@JsonProperty("id") Long id, @JsonProperty("name") String name,
+                        @JsonProperty("email") String email, @JsonProperty("age") Integer age,
+                        @JsonProperty("createdAt") LocalDateTime createdAt) {
+        this(id, name, email, age, createdAt, null);
+    }
 
-    public UserResponse(Long id, String name, String email, Integer age, LocalDateTime createdAt) {
+    public UserResponse(Long id, String name, String email, Integer age, LocalDateTime createdAt, Long version) {
         this.id = id;
         this.name = name;
         this.email = email;
         this.age = age;
         this.createdAt = createdAt;
+        this.version = version;
     }
 
     public Long getId() { return id; }
-    public void setId(Long id) { this.id = id; }
 
     public String getName() { return name; }
-    public void setName(String name) { this.name = name; }
 
     public String getEmail() { return email; }
-    public void setEmail(String email) { this.email = email; }
 
     public Integer getAge() { return age; }
-    public void setAge(Integer age) { this.age = age; }
 
     public LocalDateTime getCreatedAt() { return createdAt; }
-    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public Long getVersion() { return version; }
 }
@@ -0,0 +1,39 @@
+package com.example.userservice.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Сводка по пользователям для дашбордов: общее число, гистограмма возрастов по десятилетиям
+ * («0-9» ... «100+») и регистрации по дням. {@code reconciledAt} — время последней сверки с БД;
+ * {@code null}, пока начальная загрузка не завершена.
+ */
+public class UserStatsResponse {
+    private long total;
+    private Map<String, Long> ageHistogram;
+    private Map<LocalDate, Long> signupsPerDay;
+    private LocalDateTime reconciledAt;
+
+    public UserStatsResponse() {}
+
+    public UserStatsResponse(long total, Map<String, Long> ageHistogram, Map<LocalDate, Long> signupsPerDay,
+                             LocalDateTime reconciledAt) {
+        this.total = total;
+        this.ageHistogram = ageHistogram;
+        this.signupsPerDay = signupsPerDay;
+        this.reconciledAt = reconciledAt;
+    }
+
+    public long getTotal() { return total; }
+    public void setTotal(long total) { this.total = total; }
+
+    public Map<String, Long> getAgeHistogram() { return ageHistogram; }
+    public void setAgeHistogram(Map<String, Long> ageHistogram) { this.ageHistogram = ageHistogram; }
+
+    public Map<LocalDate, Long> getSignupsPerDay() { return signupsPerDay; }
+    public void setSignupsPerDay(Map<LocalDate, Long> signupsPerDay) { this.signupsPerDay = signupsPerDay; }
+
+    public LocalDateTime getReconciledAt() { return reconciledAt; }
+    public void setReconciledAt(LocalDateTime reconciledAt) { this.reconciledAt = reconciledAt; }
+}
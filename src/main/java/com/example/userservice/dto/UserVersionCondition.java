@@ -0,0 +1,51 @@
+package com.example.userservice.dto;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Условие If-Match на версию пользователя: {@code *} — любая версия существующей строки,
+ * иначе строка должна иметь одну из перечисленных версий. Пустой список не совпадает ни с чем
+ * (например, If-Match только со слабыми тегами).
+ */
+public final class UserVersionCondition {
+
+    private static final UserVersionCondition ANY = new UserVersionCondition(null);
+
+    // null — любая версия
+    private final Set<Long> versions;
+
+    private UserVersionCondition(Set<Long> versions) {
+        this.versions = versions;
+    }
+
+    public static UserVersionCondition any() {
+        return ANY;
+    }
+
+    public static UserVersionCondition anyOf(Collection<Long> versions) {
+        return new UserVersionCondition(Set.copyOf(versions));
+    }
+
+    public static UserVersionCondition anyOf(Long... versions) {
+        return new UserVersionCondition(Set.of(versions));
+    }
+
+    public boolean isAny() {
+        return versions == null;
+    }
+
+    // Допустимые версии; null — любая
+    public Set<Long> getVersions() {
+        return versions;
+    }
+
+    public boolean matches(long version) {
+        return versions == null || versions.contains(version);
+    }
+
+    @Override
+    public String toString() {
+        return versions == null ? "*" : versions.toString();
+    }
+}
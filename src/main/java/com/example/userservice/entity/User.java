@@ -9,11 +9,20 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "users",
-        indexes = @Index(name = "idx_user_email", columnList = "email", unique = true))
+        indexes = {
+                // Единственное ограничение уникальности email: по имени индекса конфликт отличается от прочих ошибок
+                @Index(name = "idx_user_email", columnList = "email", unique = true),
+                // Фильтры списка по возрасту и времени регистрации
+                @Index(name = "idx_user_age", columnList = "age"),
+                @Index(name = "idx_user_created_at", columnList = "created_at")
+        })
 public class User {
 
+    // Последовательность с шагом 50 (pooled): id выдаются без обращения к БД на каждую вставку,
+    // что позволяет Hibernate отправлять INSERT пакетами (IDENTITY пакетную вставку отключает)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Name is required")
@@ -22,7 +31,7 @@ public class User {
 
     @Email(message = "Email should be valid")
     @NotBlank(message = "Email is required")
-    @Column(nullable = false, unique = true, length = 150)
+    @Column(nullable = false, length = 150)
     private String email;
 
     @NotNull(message = "Age is required")
@@ -33,6 +42,11 @@ public class User {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    // Оптимистическая блокировка и ETag. DEFAULT 0 — чтобы ddl-auto мог добавить столбец в непустую таблицу
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0 not null")
+    private Long version;
+
     public User() {}
 
     public User(String name, String email, Integer age) {
@@ -60,4 +74,7 @@ public class User {
 
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
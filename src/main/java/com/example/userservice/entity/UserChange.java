@@ -0,0 +1,106 @@
+package com.example.userservice.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Событие ленты изменений (transactional outbox): пишется в той же транзакции, что и изменение пользователя.
+ *
+ * Позиция в ленте ({@code feed_position}) выдаётся не при вставке, а после коммита — UserChangeFeed
+ * нумерует закоммиченные события подряд. Поэтому позиции плотные и становятся видимыми по возрастанию:
+ * потребитель, читающий {@code position > since}, не пропустит событие транзакции, закоммиченной позже.
+ */
+@Entity
+@Table(name = "user_changes",
+        indexes = {
+                @Index(name = "idx_user_change_position", columnList = "feed_position", unique = true),
+                // Удаление старых событий
+                @Index(name = "idx_user_change_occurred_at", columnList = "occurred_at")
+        })
+public class UserChange {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    @Id
+    // Шаг 1, а не блоки по 50: id задаёт порядок нумерации закоммиченных событий (findUnpositioned),
+    // а блоки, выданные разным экземплярам, перемешали бы события разных экземпляров не в порядке вставки
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_change_seq")
+    @SequenceGenerator(name = "user_change_seq", sequenceName = "user_changes_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(name = "feed_position")
+    private Long position;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Type type;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // Состояние пользователя после изменения; у DELETED — null (версия — удалённой строки)
+    @Column(length = 100)
+    private String name;
+
+    @Column(length = 150)
+    private String email;
+
+    private Integer age;
+
+    @Column(name = "user_version")
+    private Long userVersion;
+
+    @Column(name = "occurred_at", nullable = false, updatable = false)
+    private LocalDateTime occurredAt;
+
+    // Два экземпляра, одновременно нумерующие одни и те же события: второй получит конфликт версии
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    public UserChange() {}
+
+    public UserChange(Type type, Long userId, String name, String email, Integer age, Long userVersion) {
+        this.type = type;
+        this.userId = userId;
+        this.name = name;
+        this.email = email;
+        this.age = age;
+        this.userVersion = userVersion;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        occurredAt = LocalDateTime.now();
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getPosition() { return position; }
+    public void setPosition(Long position) { this.position = position; }
+
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public Integer getAge() { return age; }
+    public void setAge(Integer age) { this.age = age; }
+
+    public Long getUserVersion() { return userVersion; }
+    public void setUserVersion(Long userVersion) { this.userVersion = userVersion; }
+
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+    public void setOccurredAt(LocalDateTime occurredAt) { this.occurredAt = occurredAt; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+}
@@ -0,0 +1,12 @@
+package com.example.userservice.exception;
+
+/**
+ * Пакет операций столкнулся с параллельной записью (занятый email, изменённая строка)
+ * и при повторе (409). Пакет откачен целиком; клиент может повторить запрос.
+ */
+public class BatchConflictException extends UserServiceException {
+
+    public BatchConflictException() {
+        super("Batch conflicted with concurrent changes, retry the request");
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.userservice.exception;
+
+/**
+ * События после курсора ленты изменений уже удалены (410): потребителю нужна полная синхронизация.
+ */
+public class ChangesExpiredException extends UserServiceException {
+
+    public ChangesExpiredException(long since) {
+        super("Changes after position " + since + " have been pruned, resynchronize from GET /api/users");
+    }
+}
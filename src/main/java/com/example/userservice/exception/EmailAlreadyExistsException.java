@@ -0,0 +1,36 @@
+package com.example.userservice.exception;
+
+import org.hibernate.exception.ConstraintViolationException;
+
+import java.util.Locale;
+
+/**
+ * Email уже занят другим пользователем (409).
+ */
+public class EmailAlreadyExistsException extends UserServiceException {
+
+    // Уникальный индекс по email (User, db/reactive-schema.sql)
+    public static final String EMAIL_INDEX = "idx_user_email";
+
+    public EmailAlreadyExistsException(String email) {
+        super("User with email " + email + " already exists");
+    }
+
+    /**
+     * Нарушен ли уникальный индекс {@link #EMAIL_INDEX}. Имя ограничения берётся у Hibernate, а для
+     * R2DBC и прочих драйверов — из текста ошибки. H2 сообщает имя в верхнем регистре, со схемой и
+     * суффиксом (PUBLIC.IDX_USER_EMAIL_INDEX_4), поэтому ищется вхождение без учёта регистра.
+     * Остальные нарушения целостности (длина, NOT NULL) конфликтом email не считаются.
+     */
+    public static boolean isEmailConflict(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            String name = cause instanceof ConstraintViolationException violation
+                    ? violation.getConstraintName()
+                    : cause.getMessage();
+            if (name != null && name.toLowerCase(Locale.ROOT).contains(EMAIL_INDEX)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.userservice.exception;
+
+/**
+ * Очередь запросов переполнена, запрос не принят (503 с Retry-After).
+ */
+public class ServiceOverloadedException extends UserServiceException {
+
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+}
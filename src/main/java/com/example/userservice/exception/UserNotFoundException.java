@@ -0,0 +1,21 @@
+package com.example.userservice.exception;
+
+/**
+ * Пользователь с указанным id не найден (404). Текст сообщения собирается только при обращении к нему.
+ */
+public class UserNotFoundException extends UserServiceException {
+
+    private final Long id;
+
+    public UserNotFoundException(Long id) {
+        super(null);
+        this.id = id;
+    }
+
+    public Long getId() { return id; }
+
+    @Override
+    public String getMessage() {
+        return "User not found with id: " + id;
+    }
+}
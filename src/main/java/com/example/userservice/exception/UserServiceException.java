@@ -0,0 +1,15 @@
+package com.example.userservice.exception;
+
+/**
+ * Базовое исключение ожидаемых ошибок предметной области (не найден, конфликт).
+ *
+ * Такие ошибки — обычный исход запроса, а не сбой, поэтому стек вызовов не собирается
+ * и suppressed-исключения не хранятся: бросок стоит как создание обычного объекта.
+ * Каждому подклассу соответствует свой HTTP-статус в {@link GlobalExceptionHandler}.
+ */
+public abstract class UserServiceException extends RuntimeException {
+
+    protected UserServiceException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.userservice.exception;
+
+/**
+ * Версия пользователя не совпала с ожидаемой (If-Match) или изменилась параллельной записью (412).
+ */
+public class UserVersionMismatchException extends UserServiceException {
+
+    private final Long id;
+
+    public UserVersionMismatchException(Long id) {
+        super(null);
+        this.id = id;
+    }
+
+    public Long getId() { return id; }
+
+    @Override
+    public String getMessage() {
+        return "User with id " + id + " has been modified";
+    }
+}
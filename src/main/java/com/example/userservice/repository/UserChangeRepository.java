@@ -0,0 +1,39 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.dto.UserChangeResponse;
+import com.example.userservice.entity.UserChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface UserChangeRepository extends JpaRepository<UserChange, Long> {
+
+    // Закоммиченные события без позиции в порядке вставки: id выдаются по одному (allocationSize = 1)
+    @Query("select c from UserChange c where c.position is null order by c.id")
+    List<UserChange> findUnpositioned(Limit limit);
+
+    @Query("select coalesce(max(c.position), 0) from UserChange c")
+    long findMaxPosition();
+
+    // Чтение ленты по уникальному индексу idx_user_change_position сразу в DTO
+    @Query("select new com.example.userservice.dto.UserChangeResponse(c.position, c.type, c.userId, c.name, c.email, " +
+            "c.age, c.userVersion, c.occurredAt) from UserChange c where c.position > :since order by c.position")
+    List<UserChangeResponse> findResponsesAfter(@Param("since") long since, Limit limit);
+
+    // Последнее событие не удаляется: по нему читатель с устаревшим курсором поймёт, что события пропущены
+    @Query("select c.id from UserChange c where c.occurredAt < :cutoff and c.position is not null " +
+            "and c.position < (select max(m.position) from UserChange m) order by c.id")
+    List<Long> findIdsToPrune(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from UserChange c where c.id in :ids")
+    int removeAllByIdIn(@Param("ids") Collection<Long> ids);
+}
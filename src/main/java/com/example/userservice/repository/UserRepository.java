@@ -1,13 +1,50 @@
 package com.example.userservice.repository;
 
+import com.example.userservice.dto.UserResponse;
 import com.example.userservice.entity.User;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select u.email from User u")
+    Stream<String> streamAllEmails();
+
+    // Чтение сразу в DTO, без загрузки сущности в persistence context
+    @Query("select new com.example.userservice.dto.UserResponse(u.id, u.name, u.email, u.age, u.createdAt, u.version) " +
+            "from User u where u.id = :id")
+    Optional<UserResponse> findResponseById(@Param("id") Long id);
+
+    // Выборка по списку id одним WHERE id IN (...) сразу в DTO; порядок строк не гарантирован
+    @Query("select new com.example.userservice.dto.UserResponse(u.id, u.name, u.email, u.age, u.createdAt, u.version) " +
+            "from User u where u.id in :ids")
+    List<UserResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Сверка статистики (UserStatistics): группировка по индексам idx_user_age и idx_user_created_at
+    @Query("select u.age, count(u) from User u group by u.age")
+    List<Object[]> countUsersByAge();
+
+    @Query("select cast(u.createdAt as LocalDate), count(u) from User u where u.createdAt >= :since " +
+            "group by cast(u.createdAt as LocalDate)")
+    List<Object[]> countUsersByCreationDateSince(@Param("since") LocalDateTime since);
+
+    @Query("select u.email from User u where u.email in :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
 }
@@ -0,0 +1,40 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.dto.UserFilter;
+import com.example.userservice.dto.UserResponse;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Страница пользователей с id > after, удовлетворяющих фильтру, в порядке id.
+     */
+    List<UserResponse> findResponsesAfter(long after, UserFilter filter, int limit);
+
+    /**
+     * Все пользователи в порядке id, построчно через серверный курсор. Требует открытой транзакции
+     * (в PostgreSQL курсор работает только при autocommit = false).
+     */
+    void forEachUserRow(UserRowHandler handler);
+
+    /**
+     * Частичное обновление: прежняя строка читается с блокировкой, затем один UPDATE меняет заданные
+     * (не null) поля и увеличивает версию. При {@code versions != null} строка обновляется, лишь если её
+     * версия есть в этом списке. Возвращает строку в том виде, какой она была до обновления; пусто — строка не изменена.
+     */
+    Optional<UserResponse> patchByIdReturningOld(long id, String name, String email, Integer age, Collection<Long> versions);
+
+    /**
+     * DELETE строки, прочитанной с блокировкой, с условием на версию (если список задан). Возвращает удалённую строку.
+     */
+    Optional<UserResponse> removeByIdReturning(long id, Collection<Long> versions);
+
+    /**
+     * Строки по списку id читаются с блокировкой и удаляются одним DELETE ... WHERE id IN (...).
+     * Возвращает удалённые строки (отсутствующих id в них нет).
+     */
+    List<UserResponse> removeAllByIdInReturning(Collection<Long> ids);
+}
@@ -0,0 +1,189 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.dto.UserFilter;
+import com.example.userservice.dto.UserResponse;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.Session;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Запрос строится только из заданных условий: шаблон {@code :p is null or u.age >= :p}
+ * мешает планировщику использовать индексы idx_user_age и idx_user_created_at.
+ *
+ * Условие {@code id > :after} добавляется только начиная со второй страницы: на первой оно
+ * покрывает всю таблицу, и планировщик (H2, PostgreSQL) предпочёл бы отсортированный обход
+ * первичного ключа индексу фильтра. Со второй страницы первичный ключ обходится с курсора в порядке id
+ * без сортировки, пока не наберётся limit строк (планы обеих форм — UserFilterQueryPlanTest).
+ *
+ * Перед UPDATE и DELETE прежние строки читаются SELECT ... FOR UPDATE: до конца транзакции их никто
+ * не изменит, поэтому по ним точно известны и вклад в статистику, и новая строка. Оба оператора — JPQL,
+ * SQL для PostgreSQL и H2 строит диалект Hibernate. Как у {@code @Modifying(flushAutomatically = true,
+ * clearAutomatically = true)}: несохранённые изменения сущностей уходят в БД до чтения, а persistence
+ * context после изменения очищается.
+ */
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    // Строк за одно обращение к серверному курсору
+    private static final int EXPORT_FETCH_SIZE = 500;
+
+    private static final String SELECT_RESPONSE = "select new com.example.userservice.dto.UserResponse(" +
+            "u.id, u.name, u.email, u.age, u.createdAt, u.version) from User u where ";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UserResponse> findResponsesAfter(long after, UserFilter filter, int limit) {
+        List<String> conditions = new ArrayList<>(5);
+        if (after > 0) {
+            conditions.add("u.id > :after");
+        }
+        if (filter.getMinAge() != null) {
+            conditions.add("u.age >= :minAge");
+        }
+        if (filter.getMaxAge() != null) {
+            conditions.add("u.age <= :maxAge");
+        }
+        if (filter.getCreatedAfter() != null) {
+            conditions.add("u.createdAt >= :createdAfter");
+        }
+        if (filter.getCreatedBefore() != null) {
+            conditions.add("u.createdAt < :createdBefore");
+        }
+
+        String jpql = "select new com.example.userservice.dto.UserResponse(u.id, u.name, u.email, u.age, u.createdAt, u.version) " +
+                "from User u" +
+                (conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions)) +
+                " order by u.id";
+        TypedQuery<UserResponse> query = entityManager.createQuery(jpql, UserResponse.class)
+                .setMaxResults(limit);
+        if (after > 0) {
+            query.setParameter("after", after);
+        }
+        if (filter.getMinAge() != null) {
+            query.setParameter("minAge", filter.getMinAge());
+        }
+        if (filter.getMaxAge() != null) {
+            query.setParameter("maxAge", filter.getMaxAge());
+        }
+        if (filter.getCreatedAfter() != null) {
+            query.setParameter("createdAfter", filter.getCreatedAfter());
+        }
+        if (filter.getCreatedBefore() != null) {
+            query.setParameter("createdBefore", filter.getCreatedBefore());
+        }
+        return query.getResultList();
+    }
+
+    // JDBC на соединении текущей транзакции: значения строки читаются из ResultSet и сразу
+    // передаются обработчику, без DTO и без persistence context
+    @Override
+    public void forEachUserRow(UserRowHandler handler) {
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "select id, name, email, age, created_at from users order by id")) {
+                statement.setFetchSize(EXPORT_FETCH_SIZE);
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        handler.handle(rows.getLong(1), rows.getString(2), rows.getString(3), rows.getInt(4),
+                                rows.getObject(5, LocalDateTime.class));
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public Optional<UserResponse> patchByIdReturningOld(long id, String name, String email, Integer age,
+                                                        Collection<Long> versions) {
+        entityManager.flush();
+        Optional<UserResponse> old = lockById(id, versions);
+        if (old.isPresent()) {
+            List<String> assignments = new ArrayList<>(4);
+            if (name != null) {
+                assignments.add("u.name = :name");
+            }
+            if (email != null) {
+                assignments.add("u.email = :email");
+            }
+            if (age != null) {
+                assignments.add("u.age = :age");
+            }
+            assignments.add("u.version = u.version + 1");
+            Query update = entityManager.createQuery(
+                    "update User u set " + String.join(", ", assignments) + " where u.id = :id")
+                    .setParameter("id", id);
+            if (name != null) {
+                update.setParameter("name", name);
+            }
+            if (email != null) {
+                update.setParameter("email", email);
+            }
+            if (age != null) {
+                update.setParameter("age", age);
+            }
+            update.executeUpdate();
+        }
+        entityManager.clear();
+        return old;
+    }
+
+    @Override
+    public Optional<UserResponse> removeByIdReturning(long id, Collection<Long> versions) {
+        entityManager.flush();
+        Optional<UserResponse> old = lockById(id, versions);
+        if (old.isPresent()) {
+            entityManager.createQuery("delete from User u where u.id = :id")
+                    .setParameter("id", id)
+                    .executeUpdate();
+        }
+        entityManager.clear();
+        return old;
+    }
+
+    @Override
+    public List<UserResponse> removeAllByIdInReturning(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        entityManager.flush();
+        List<UserResponse> old = entityManager.createQuery(SELECT_RESPONSE + "u.id in :ids", UserResponse.class)
+                .setParameter("ids", ids)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+        if (!old.isEmpty()) {
+            entityManager.createQuery("delete from User u where u.id in :ids")
+                    .setParameter("ids", old.stream().map(UserResponse::getId).toList())
+                    .executeUpdate();
+        }
+        entityManager.clear();
+        return old;
+    }
+
+    // Прежняя строка с блокировкой до конца транзакции; при versions != null — только одной из этих версий
+    private Optional<UserResponse> lockById(long id, Collection<Long> versions) {
+        if (versions != null && versions.isEmpty()) {
+            return Optional.empty();
+        }
+        TypedQuery<UserResponse> query = entityManager.createQuery(
+                        SELECT_RESPONSE + "u.id = :id" + (versions != null ? " and u.version in :versions" : ""),
+                        UserResponse.class)
+                .setParameter("id", id)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE);
+        if (versions != null) {
+            query.setParameter("versions", versions);
+        }
+        return query.getResultStream().findFirst();
+    }
+}
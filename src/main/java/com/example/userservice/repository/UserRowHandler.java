@@ -0,0 +1,12 @@
+package com.example.userservice.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Получатель строк таблицы users без промежуточного DTO: значения передаются прямо из ResultSet.
+ */
+@FunctionalInterface
+public interface UserRowHandler {
+
+    void handle(long id, String name, String email, int age, LocalDateTime createdAt);
+}
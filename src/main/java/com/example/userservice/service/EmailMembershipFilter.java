@@ -0,0 +1,130 @@
+package com.example.userservice.service;
+
+import com.example.userservice.config.ReplicaRoutingDataSource;
+import com.example.userservice.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Фильтр Блума по email пользователей. Ответ {@code false} означает «такого email точно нет»,
+ * и проверку в БД можно пропустить; {@code true} — «возможно есть», нужна проверка {@code existsByEmail}.
+ *
+ * Удалённые и изменённые email из фильтра не убираются: это лишь даёт ложноположительный ответ
+ * и лишний запрос к БД. Email, записанные другим экземпляром сервиса, фильтр не видит —
+ * такой конфликт ловит уникальный индекс {@code idx_user_email}.
+ */
+@Component
+@Profile("!reactive")
+public class EmailMembershipFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailMembershipFilter.class);
+
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final AtomicLongArray bits;
+    private final long numBits;
+    private final int numHashFunctions;
+
+    // Пока фильтр не заполнен из БД, отвечаем «возможно есть»
+    private volatile boolean ready;
+
+    @Autowired
+    public EmailMembershipFilter(
+            UserRepository userRepository,
+            @Value("${user-service.email-filter.enabled:true}") boolean enabled,
+            @Value("${user-service.email-filter.expected-insertions:1000000}") long expectedInsertions,
+            @Value("${user-service.email-filter.false-positive-probability:0.01}") double falsePositiveProbability) {
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+
+        // Классические формулы: m = -n ln p / (ln 2)^2, k = m / n * ln 2
+        long optimalBits = (long) (-expectedInsertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        this.numBits = Math.max(64, (optimalBits + 63) / 64 * 64);
+        this.numHashFunctions = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+        this.bits = new AtomicLongArray(enabled ? (int) (numBits / 64) : 1);
+    }
+
+    // Загрузка идёт в фоне, чтобы большая таблица не задерживала старт; до её окончания фильтр отвечает «возможно есть»
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        // С основной БД: email, которого ещё нет на реплике, иначе навсегда выпал бы из фильтра
+        long count = ReplicaRoutingDataSource.onPrimary(() -> {
+            long loaded = 0;
+            try (Stream<String> emails = userRepository.streamAllEmails()) {
+                Iterator<String> iterator = emails.iterator();
+                while (iterator.hasNext()) {
+                    add(iterator.next());
+                    loaded++;
+                }
+            }
+            return loaded;
+        });
+        ready = true;
+        log.info("Email filter loaded: {} emails, {} bits, {} hash functions", count, numBits, numHashFunctions);
+    }
+
+    public boolean mightContain(String email) {
+        if (!enabled || !ready) {
+            return true;
+        }
+        long hash = hash(email);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashFunctions; i++) {
+            long bit = index(h1 + i * h2);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void add(String email) {
+        if (!enabled) {
+            return;
+        }
+        long hash = hash(email);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashFunctions; i++) {
+            long bit = index(h1 + i * h2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    private long index(int combinedHash) {
+        return (combinedHash < 0 ? ~combinedHash : combinedHash) % numBits;
+    }
+
+    // 64-битный FNV-1a: две половины дают независимые хеши для схемы double hashing
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
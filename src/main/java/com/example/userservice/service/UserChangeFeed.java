@@ -0,0 +1,289 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dto.UserChangePageResponse;
+import com.example.userservice.dto.UserChangeResponse;
+import com.example.userservice.dto.UserResponse;
+import com.example.userservice.entity.User;
+import com.example.userservice.entity.UserChange;
+import com.example.userservice.exception.ChangesExpiredException;
+import com.example.userservice.repository.UserChangeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * Лента изменений пользователей на transactional outbox.
+ *
+ * UserService пишет событие в user_changes в той же транзакции, что и изменение: откат отменяет и событие.
+ * Раз в {@code publish-interval} закоммиченные события получают позиции подряд после последней выданной
+ * и рассылаются подписчикам SSE. Читатели продолжают с курсора {@code since} — позиции последнего
+ * полученного события. События старше {@code retention} удаляются пачками по {@code batch-size}.
+ */
+@Component
+@Profile("!reactive")
+public class UserChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(UserChangeFeed.class);
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final String CHANGE_EVENT = "user-change";
+    public static final String EXPIRED_EVENT = "expired";
+
+    private final UserChangeRepository changeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor executor;
+    private final Duration retention;
+    private final int batchSize;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    // Последняя известная экземпляру позиция: её рост без своих событий значит, что позиции выдал другой экземпляр
+    private volatile long lastPosition;
+
+    @Autowired
+    public UserChangeFeed(
+            UserChangeRepository changeRepository,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("applicationTaskExecutor") Executor executor,
+            @Value("${user-service.changes.retention:7d}") Duration retention,
+            @Value("${user-service.changes.batch-size:1000}") int batchSize) {
+        this.changeRepository = changeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+        this.retention = retention;
+        this.batchSize = batchSize;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void userCreated(User user) {
+        record(UserChange.Type.CREATED, user.getId(), user.getName(), user.getEmail(), user.getAge(), user.getVersion());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void userUpdated(User user) {
+        record(UserChange.Type.UPDATED, user.getId(), user.getName(), user.getEmail(), user.getAge(), user.getVersion());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void userUpdated(UserResponse user) {
+        record(UserChange.Type.UPDATED, user.getId(), user.getName(), user.getEmail(), user.getAge(), user.getVersion());
+    }
+
+    // У DELETED — версия удалённой строки: по ней потребитель отбросит запоздавшие события о пользователе
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void userDeleted(User user) {
+        record(UserChange.Type.DELETED, user.getId(), null, null, null, user.getVersion());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void userDeleted(UserResponse user) {
+        record(UserChange.Type.DELETED, user.getId(), null, null, null, user.getVersion());
+    }
+
+    /**
+     * События после позиции {@code since} (без since — с самого старого хранящегося).
+     * Если события сразу после since уже удалены, бросает ChangesExpiredException.
+     */
+    @Transactional(readOnly = true)
+    public UserChangePageResponse getChanges(Long since, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        long cursor = since != null ? since : 0L;
+
+        List<UserChangeResponse> changes = changeRepository.findResponsesAfter(cursor, Limit.of(pageSize));
+        // Позиции плотные: пропуск после since означает, что события удалены
+        if (since != null && !changes.isEmpty() && changes.get(0).getPosition() > since + 1) {
+            throw new ChangesExpiredException(since);
+        }
+        Long next = changes.isEmpty() ? cursor : changes.get(changes.size() - 1).getPosition();
+        return new UserChangePageResponse(changes, next);
+    }
+
+    /**
+     * Поток SSE: сначала события после since из БД, затем новые по мере выдачи позиций.
+     * id события SSE — позиция, поэтому переподключившийся клиент продолжает с Last-Event-ID.
+     */
+    public SseEmitter subscribe(Long since) {
+        // Таймаут — spring.mvc.async.request-timeout; по его истечении клиент переподключается
+        SseEmitter emitter = new SseEmitter();
+        Subscriber subscriber = new Subscriber(emitter, since);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        executor.execute(() -> subscriber.deliver(List.of()));
+        return emitter;
+    }
+
+    /**
+     * Нумерует закоммиченные события и рассылает их подписчикам.
+     * Незакоммиченные события не видны запросу и получат позиции позже — после уже выданных.
+     */
+    @Scheduled(fixedDelayString = "${user-service.changes.publish-interval:200ms}")
+    public void publish() {
+        List<UserChangeResponse> positioned;
+        boolean published = false;
+        do {
+            positioned = assignPositions();
+            if (!positioned.isEmpty()) {
+                lastPosition = positioned.get(positioned.size() - 1).getPosition();
+                notifySubscribers(positioned);
+                published = true;
+            }
+        } while (positioned.size() == batchSize);
+
+        if (!published && !subscribers.isEmpty()) {
+            long max = changeRepository.findMaxPosition();
+            if (max > lastPosition) {
+                lastPosition = max;
+                notifySubscribers(List.of());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${user-service.changes.prune-interval:1m}",
+            initialDelayString = "${user-service.changes.prune-interval:1m}")
+    public void prune() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        int total = 0;
+        int deleted;
+        do {
+            // Каждая пачка — своя короткая транзакция: удаление не держит блокировки долго
+            deleted = transactionTemplate.execute(status -> {
+                List<Long> ids = changeRepository.findIdsToPrune(cutoff, Limit.of(batchSize));
+                return ids.isEmpty() ? 0 : changeRepository.removeAllByIdIn(ids);
+            });
+            total += deleted;
+        } while (deleted == batchSize);
+        if (total > 0) {
+            log.debug("Pruned {} user changes older than {}", total, cutoff);
+        }
+    }
+
+    private void record(UserChange.Type type, Long userId, String name, String email, Integer age, Long version) {
+        changeRepository.save(new UserChange(type, userId, name, email, age, version));
+    }
+
+    // Второй экземпляр, нумерующий те же события, получит конфликт версии или уникального индекса позиции
+    // и откатится; его события уже пронумерованы первым
+    private List<UserChangeResponse> assignPositions() {
+        try {
+            return transactionTemplate.execute(status -> {
+                List<UserChange> changes = changeRepository.findUnpositioned(Limit.of(batchSize));
+                if (changes.isEmpty()) {
+                    return List.of();
+                }
+                long position = changeRepository.findMaxPosition();
+                List<UserChangeResponse> positioned = new ArrayList<>(changes.size());
+                for (UserChange change : changes) {
+                    change.setPosition(++position);
+                    positioned.add(toResponse(change));
+                }
+                changeRepository.flush();
+                return positioned;
+            });
+        } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+            log.debug("User changes are being positioned concurrently: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    private void notifySubscribers(List<UserChangeResponse> changes) {
+        for (Subscriber subscriber : subscribers) {
+            executor.execute(() -> subscriber.deliver(changes));
+        }
+    }
+
+    private static UserChangeResponse toResponse(UserChange change) {
+        return new UserChangeResponse(change.getPosition(), change.getType(), change.getUserId(), change.getName(),
+                change.getEmail(), change.getAge(), change.getUserVersion(), change.getOccurredAt());
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private Long cursor;
+        private boolean closed;
+
+        Subscriber(SseEmitter emitter, Long since) {
+            this.emitter = emitter;
+            this.cursor = since;
+        }
+
+        // Рассылки выполняются параллельно; порядок событий держит курсор: продолжение курсора
+        // отправляется из памяти, а при разрыве (первое подключение, пропущенная рассылка) — дочитывается из БД
+        synchronized void deliver(List<UserChangeResponse> changes) {
+            if (closed) {
+                return;
+            }
+            try {
+                if (cursor != null && !changes.isEmpty() && changes.get(0).getPosition() <= cursor + 1) {
+                    for (UserChangeResponse change : changes) {
+                        send(change);
+                    }
+                } else {
+                    catchUp();
+                }
+            } catch (ChangesExpiredException e) {
+                expire(e);
+            } catch (IOException | IllegalStateException e) {
+                close();
+            }
+        }
+
+        private void catchUp() throws IOException {
+            List<UserChangeResponse> page;
+            do {
+                page = getChanges(cursor, MAX_PAGE_SIZE).getChanges();
+                for (UserChangeResponse change : page) {
+                    send(change);
+                }
+            } while (page.size() == MAX_PAGE_SIZE);
+        }
+
+        private void send(UserChangeResponse change) throws IOException {
+            if (cursor != null && change.getPosition() <= cursor) {
+                return;
+            }
+            emitter.send(SseEmitter.event()
+                    .id(Long.toString(change.getPosition()))
+                    .name(CHANGE_EVENT)
+                    .data(change, MediaType.APPLICATION_JSON));
+            cursor = change.getPosition();
+        }
+
+        private void expire(ChangesExpiredException e) {
+            try {
+                emitter.send(SseEmitter.event().name(EXPIRED_EVENT).data(e.getMessage()));
+                emitter.complete();
+            } catch (IOException | IllegalStateException ignored) {
+                // Клиент уже отключился
+            }
+            close();
+        }
+
+        private void close() {
+            closed = true;
+            subscribers.remove(this);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.userservice.service;
+
+import com.example.userservice.entity.User;
+import com.example.userservice.exception.EmailAlreadyExistsException;
+import com.example.userservice.exception.ServiceOverloadedException;
+import com.example.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Групповой коммит регистраций: одновременные вызовы createUser ставят пользователя в ограниченную очередь,
+ * а один фоновый поток забирает из неё до {@code max-batch-size} строк (ожидая следующие не дольше
+ * {@code max-delay}) и вставляет их одной транзакцией — JDBC-пакетом, который драйвер PostgreSQL
+ * с reWriteBatchedInserts превращает в многострочный INSERT. Вызов возвращается после коммита своей строки.
+ *
+ * Уникальность email: повтор внутри пакета отклоняется сразу, занятые в БД email находятся одним SELECT.
+ * Если email заняли между проверкой и INSERT, пакет откатывается и его строки вставляются по одной,
+ * чтобы конфликт получил только свой вызов.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "user-service.group-commit.enabled", havingValue = "true")
+public class UserGroupCommitter {
+
+    private static final Logger log = LoggerFactory.getLogger(UserGroupCommitter.class);
+
+    public static final String BATCH_SIZE_METRIC = "user.service.group-commit.batch.size";
+
+    private final UserRepository userRepository;
+    private final EmailMembershipFilter emailFilter;
+    private final UserChangeFeed changeFeed;
+    private final TransactionTemplate transactionTemplate;
+    private final DistributionSummary batchSizes;
+    private final BlockingQueue<PendingUser> queue;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final long enqueueTimeoutNanos;
+    private final Thread flusher;
+
+    private volatile boolean running = true;
+
+    @Autowired
+    public UserGroupCommitter(
+            UserRepository userRepository,
+            EmailMembershipFilter emailFilter,
+            UserChangeFeed changeFeed,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${user-service.group-commit.max-batch-size:50}") int maxBatchSize,
+            @Value("${user-service.group-commit.max-delay:5ms}") Duration maxDelay,
+            @Value("${user-service.group-commit.queue-capacity:10000}") int queueCapacity,
+            @Value("${user-service.group-commit.enqueue-timeout:500ms}") Duration enqueueTimeout) {
+        this.userRepository = userRepository;
+        this.emailFilter = emailFilter;
+        this.changeFeed = changeFeed;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSizes = DistributionSummary.builder(BATCH_SIZE_METRIC)
+                .description("Users inserted by one group commit transaction")
+                .register(meterRegistry);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.enqueueTimeoutNanos = enqueueTimeout.toNanos();
+        this.flusher = Thread.ofPlatform().name("user-group-commit").daemon().start(this::run);
+    }
+
+    /**
+     * Вставляет пользователя в ближайшем групповом коммите и возвращает его после коммита.
+     * Вызывать вне транзакции: ожидающий поток не должен держать соединение из пула.
+     */
+    public User insert(User user) {
+        PendingUser pending = new PendingUser(user);
+        boolean queued;
+        try {
+            queued = queue.offer(pending, enqueueTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceOverloadedException("Interrupted while waiting for the user creation queue");
+        }
+        // После остановки поток-сбросчик может уже не прочитать очередь: забираем свою строку обратно
+        if (!queued || (!running && queue.remove(pending))) {
+            throw new ServiceOverloadedException("Too many pending user creations");
+        }
+        return await(pending.result);
+    }
+
+    // Оставшиеся в очереди строки вставляются до остановки: ждущие вызовы получат ответ
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join();
+    }
+
+    private void run() {
+        List<PendingUser> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                // Остановка: уже собранное вставляется, затем цикл дочитает очередь
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    // Первая строка открывает окно max-delay; пакет уходит по истечении окна или при max-batch-size строк
+    private void collect(List<PendingUser> batch) throws InterruptedException {
+        PendingUser first = running ? queue.take() : queue.poll();
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                return;
+            }
+            PendingUser next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<PendingUser> batch) {
+        Map<String, PendingUser> byEmail = new LinkedHashMap<>(batch.size() * 2);
+        for (PendingUser pending : batch) {
+            if (byEmail.putIfAbsent(pending.user.getEmail(), pending) != null) {
+                pending.reject();
+            }
+        }
+
+        try {
+            List<PendingUser> inserted = transactionTemplate.execute(status -> insertBatch(byEmail));
+            batchSizes.record(inserted.size());
+            // До ответа вызывающим: следующий пакет с тем же email должен проверить его в БД
+            inserted.forEach(pending -> emailFilter.add(pending.user.getEmail()));
+            inserted.forEach(pending -> pending.result.complete(pending.user));
+        } catch (DataIntegrityViolationException e) {
+            if (!EmailAlreadyExistsException.isEmailConflict(e)) {
+                byEmail.values().forEach(pending -> pending.result.completeExceptionally(e));
+                return;
+            }
+            log.debug("Group commit of {} users hit a unique constraint, inserting one by one", byEmail.size());
+            byEmail.values().forEach(this::insertOne);
+        } catch (RuntimeException | Error e) {
+            byEmail.values().forEach(pending -> pending.result.completeExceptionally(e));
+        }
+    }
+
+    // Email, которых точно нет в фильтре Блума, в БД не проверяются
+    private List<PendingUser> insertBatch(Map<String, PendingUser> byEmail) {
+        Set<String> candidates = byEmail.keySet().stream()
+                .filter(emailFilter::mightContain)
+                .collect(Collectors.toSet());
+        Set<String> taken = candidates.isEmpty() ? Set.of() : userRepository.findExistingEmails(candidates);
+
+        List<PendingUser> accepted = new ArrayList<>(byEmail.size());
+        List<User> users = new ArrayList<>(byEmail.size());
+        for (PendingUser pending : byEmail.values()) {
+            if (taken.contains(pending.user.getEmail())) {
+                pending.reject();
+            } else {
+                accepted.add(pending);
+                users.add(pending.user);
+            }
+        }
+        userRepository.saveAll(users);
+        userRepository.flush();
+        users.forEach(changeFeed::userCreated);
+        return accepted;
+    }
+
+    private void insertOne(PendingUser pending) {
+        if (pending.result.isDone()) {
+            return;
+        }
+        // После отката сущность сохранила выданные ей id и версию; без них save снова выполнит persist
+        User user = pending.user;
+        user.setId(null);
+        user.setVersion(null);
+        try {
+            User saved = transactionTemplate.execute(status -> {
+                User inserted = userRepository.saveAndFlush(user);
+                changeFeed.userCreated(inserted);
+                return inserted;
+            });
+            batchSizes.record(1);
+            emailFilter.add(saved.getEmail());
+            pending.result.complete(saved);
+        } catch (DataIntegrityViolationException e) {
+            if (EmailAlreadyExistsException.isEmailConflict(e)) {
+                pending.reject();
+            } else {
+                pending.result.completeExceptionally(e);
+            }
+        } catch (RuntimeException | Error e) {
+            pending.result.completeExceptionally(e);
+        }
+    }
+
+    private static User await(CompletableFuture<User> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private static final class PendingUser {
+        final User user;
+        final CompletableFuture<User> result = new CompletableFuture<>();
+
+        PendingUser(User user) {
+            this.user = user;
+        }
+
+        void reject() {
+            result.completeExceptionally(new EmailAlreadyExistsException(user.getEmail()));
+        }
+    }
+}
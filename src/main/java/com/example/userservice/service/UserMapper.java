@@ -0,0 +1,25 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dto.UserResponse;
+import com.example.userservice.entity.User;
+
+/**
+ * Копирование сущности User в UserResponse. Без состояния и зависимостей — отдельно от UserService,
+ * чтобы маппинг можно было вызывать (и измерять JMH-бенчмарком) без сервиса.
+ */
+public final class UserMapper {
+
+    private UserMapper() {
+    }
+
+    public static UserResponse toResponse(User user) {
+        return new UserResponse(
+                user.getId(),
+                user.getName(),
+                user.getEmail(),
+                user.getAge(),
+                user.getCreatedAt(),
+                user.getVersion()
+        );
+    }
+}
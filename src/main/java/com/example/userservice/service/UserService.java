@@ -1,88 +1,503 @@
 package com.example.userservice.service;
 
+import com.example.userservice.config.CacheConfig;
+import com.example.userservice.config.ReplicaRoutingDataSource;
+import com.example.userservice.dto.UserBatchOperation;
+import com.example.userservice.dto.UserBatchResult;
+import com.example.userservice.dto.UserBulkDeleteResponse;
+import com.example.userservice.dto.UserFilter;
+import com.example.userservice.dto.UserMultiGetRequest;
+import com.example.userservice.dto.UserMultiGetResponse;
+import com.example.userservice.dto.UserPageResponse;
+import com.example.userservice.dto.UserPatchRequest;
 import com.example.userservice.dto.UserRequest;
 import com.example.userservice.dto.UserResponse;
+import com.example.userservice.dto.UserVersionCondition;
 import com.example.userservice.entity.User;
+import com.example.userservice.exception.BatchConflictException;
+import com.example.userservice.exception.EmailAlreadyExistsException;
+import com.example.userservice.exception.UserNotFoundException;
+import com.example.userservice.exception.UserServiceException;
+import com.example.userservice.exception.UserVersionMismatchException;
 import com.example.userservice.repository.UserRepository;
+import com.example.userservice.repository.UserRowHandler;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+// Каждая операция пишет таймер user.service с тегами class, method и exception (none при успехе)
 @Service
+@Profile("!reactive")
 @Transactional
+@Timed("user.service")
 public class UserService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int MAX_BULK_DELETE_IDS = 10_000;
+    // Ограничение размера IN-списка в одном DELETE
+    public static final int DELETE_CHUNK_SIZE = 1000;
+    // Ограничение размера IN-списка в одном SELECT при выборке по списку id
+    public static final int MULTI_GET_CHUNK_SIZE = 1000;
+
+    public static final String COALESCED_METRIC = "user.service.coalesced";
+
     private final UserRepository userRepository;
+    private final EmailMembershipFilter emailFilter;
+    private final UserStatistics statistics;
+    // Событие каждого изменения пишется в ленту в той же транзакции
+    private final UserChangeFeed changeFeed;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final CacheManager cacheManager;
+    // Одновременные промахи кеша по одному id выполняют один SELECT
+    private final SingleFlight<Long, UserResponse> userLoads;
+    // Есть при user-service.group-commit.enabled=true
+    private UserGroupCommitter groupCommitter;
 
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, EmailMembershipFilter emailFilter, UserStatistics statistics,
+                       UserChangeFeed changeFeed, PlatformTransactionManager transactionManager,
+                       CacheManager cacheManager, MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
+        this.emailFilter = emailFilter;
+        this.statistics = statistics;
+        this.changeFeed = changeFeed;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.cacheManager = cacheManager;
+        this.userLoads = new SingleFlight<>(Counter.builder(COALESCED_METRIC)
+                .description("Requests served by another request's in-flight database load")
+                .tag("operation", "getUserById")
+                .register(meterRegistry));
     }
 
-    public UserResponse createUser(UserRequest userRequest) {
-        if (userRepository.existsByEmail(userRequest.getEmail())) {
-            throw new RuntimeException("User with email " + userRequest.getEmail() + " already exists");
-        }
+    @Autowired(required = false)
+    void setGroupCommitter(UserGroupCommitter groupCommitter) {
+        this.groupCommitter = groupCommitter;
+    }
 
+    // Один INSERT без предварительной проверки: уникальность email гарантирует индекс idx_user_email,
+    // и конфликт (в том числе при одновременной регистрации) превращается в EmailAlreadyExistsException.
+    // SUPPORTS: транзакцию с INSERT и событием ленты открывает сам метод или групповой коммит, и вызов,
+    // ждущий групповой коммит, не держит соединение из пула
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public UserResponse createUser(UserRequest userRequest) {
         User user = new User();
         user.setName(userRequest.getName());
         user.setEmail(userRequest.getEmail());
         user.setAge(userRequest.getAge());
 
-        User savedUser = userRepository.save(user);
-        return convertToResponse(savedUser);
+        User savedUser = groupCommitter != null ? groupCommitter.insert(user) : transactionTemplate.execute(status -> {
+            User saved = saveChecked(user);
+            changeFeed.userCreated(saved);
+            return saved;
+        });
+        emailFilter.add(savedUser.getEmail());
+        statistics.userCreated(savedUser.getAge(), savedUser.getCreatedAt());
+        return UserMapper.toResponse(savedUser);
     }
 
+    /**
+     * Keyset-пагинация: WHERE id > ? [AND фильтры] ORDER BY id LIMIT ? — стоимость не зависит от глубины страницы.
+     * Строки читаются сразу в DTO: нет сущностей, снимков для dirty checking и копирования полей.
+     */
     @Transactional(readOnly = true)
-    public List<UserResponse> getAllUsers() {
-        return userRepository.findAll()
-                .stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+    public UserPageResponse getUsers(Long after, int limit, UserFilter filter) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        long cursor = after != null ? after : 0L;
+
+        // Запрашиваем на одну запись больше, чтобы понять, есть ли следующая страница
+        List<UserResponse> content = userRepository.findResponsesAfter(cursor, filter, pageSize + 1);
+        boolean hasNext = content.size() > pageSize;
+        if (hasNext) {
+            content = content.subList(0, pageSize);
+        }
+
+        Long next = hasNext ? content.get(content.size() - 1).getId() : null;
+        return new UserPageResponse(content, next);
     }
 
     @Transactional(readOnly = true)
+    public void exportUsers(UserRowHandler handler) {
+        userRepository.forEachUserRow(handler);
+    }
+
+    // SUPPORTS: транзакцию (и соединение) открывает только сама загрузка, поэтому ожидающие чужой загрузки
+    // потоки не держат соединения из пула. Транзакция загрузки readOnly — её соединение может дать реплика.
+    // Поток, читающий из основной БД (окно read-your-writes), не присоединяется к загрузке с реплики
+    @Cacheable(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public UserResponse getUserById(Long id) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
-        return convertToResponse(user);
+        Supplier<UserResponse> loader = () -> readOnlyTransactionTemplate.execute(status ->
+                userRepository.findResponseById(id).orElseThrow(() -> new UserNotFoundException(id)));
+        return ReplicaRoutingDataSource.isPrimaryOnly() ? loader.get() : userLoads.load(id, loader);
+    }
+
+    /**
+     * Выборка пользователей по списку id запросами WHERE id IN (...) чанками по {@link #MULTI_GET_CHUNK_SIZE}.
+     * Повторяющиеся id схлопываются; найденные и отсутствующие id возвращаются в порядке запроса.
+     */
+    @Transactional(readOnly = true)
+    public UserMultiGetResponse getUsersByIds(Collection<Long> ids) {
+        List<Long> distinctIds = ids.stream().distinct().collect(Collectors.toList());
+        if (distinctIds.size() > UserMultiGetRequest.MAX_IDS) {
+            throw new IllegalArgumentException("No more than " + UserMultiGetRequest.MAX_IDS + " ids per request");
+        }
+
+        Map<Long, UserResponse> found = new HashMap<>(distinctIds.size() * 2);
+        for (int from = 0; from < distinctIds.size(); from += MULTI_GET_CHUNK_SIZE) {
+            int to = Math.min(from + MULTI_GET_CHUNK_SIZE, distinctIds.size());
+            userRepository.findResponsesByIdIn(distinctIds.subList(from, to))
+                    .forEach(user -> found.put(user.getId(), user));
+        }
+
+        List<UserResponse> users = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : distinctIds) {
+            UserResponse user = found.get(id);
+            if (user != null) {
+                users.add(user);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new UserMultiGetResponse(users, missing);
     }
 
-    public UserResponse updateUser(Long id, UserRequest userRequest) {
+    /**
+     * Полное обновление. {@code condition} — условие If-Match; {@code null} — без проверки.
+     * Запись, изменённая параллельно между чтением и flush, отклоняется благодаря @Version.
+     */
+    public UserResponse updateUser(Long id, UserRequest userRequest, UserVersionCondition condition) {
         User user = userRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
+                .orElseThrow(() -> notFound(id, condition));
+        if (condition != null && !condition.matches(user.getVersion())) {
+            throw new UserVersionMismatchException(id);
+        }
 
         // Проверка на уникальность email (если email изменен)
-        if (!user.getEmail().equals(userRequest.getEmail()) &&
-                userRepository.existsByEmail(userRequest.getEmail())) {
-            throw new RuntimeException("User with email " + userRequest.getEmail() + " already exists");
+        if (!user.getEmail().equals(userRequest.getEmail()) && emailTaken(userRequest.getEmail())) {
+            throw new EmailAlreadyExistsException(userRequest.getEmail());
         }
 
+        int oldAge = user.getAge();
         user.setName(userRequest.getName());
         user.setEmail(userRequest.getEmail());
         user.setAge(userRequest.getAge());
 
-        User updatedUser = userRepository.save(user);
-        return convertToResponse(updatedUser);
+        User updatedUser = saveChecked(user);
+        changeFeed.userUpdated(updatedUser);
+        emailFilter.add(updatedUser.getEmail());
+        statistics.userAgeChanged(oldAge, updatedUser.getAge());
+        evictAfterCommit(List.of(id));
+        return UserMapper.toResponse(updatedUser);
+    }
+
+    /**
+     * Частичное обновление одним UPDATE без загрузки сущности и dirty checking.
+     * Прежняя строка читается с блокировкой перед UPDATE: по ней известны точный сдвиг гистограммы возрастов и новая строка
+     * (заданные поля поверх прежних, версия + 1), так что перечитывать её не нужно.
+     * Не найденный id — пустой результат, конфликт email — нарушение уникального индекса.
+     * Условие If-Match ({@code condition}) проверяется при чтении строки перед UPDATE.
+     */
+    public UserResponse patchUser(Long id, UserPatchRequest patchRequest, UserVersionCondition condition) {
+        Optional<UserResponse> previous;
+        try {
+            previous = userRepository.patchByIdReturningOld(id, patchRequest.getName(), patchRequest.getEmail(),
+                    patchRequest.getAge(), versions(condition));
+        } catch (DataIntegrityViolationException e) {
+            if (EmailAlreadyExistsException.isEmailConflict(e)) {
+                throw new EmailAlreadyExistsException(patchRequest.getEmail());
+            }
+            throw e;
+        }
+        UserResponse old = previous.orElseThrow(() -> notUpdated(id, condition));
+        UserResponse patched = new UserResponse(
+                old.getId(),
+                Objects.requireNonNullElse(patchRequest.getName(), old.getName()),
+                Objects.requireNonNullElse(patchRequest.getEmail(), old.getEmail()),
+                Objects.requireNonNullElse(patchRequest.getAge(), old.getAge()),
+                old.getCreatedAt(),
+                old.getVersion() + 1);
+
+        if (patchRequest.getEmail() != null) {
+            emailFilter.add(patchRequest.getEmail());
+        }
+        statistics.userAgeChanged(old.getAge(), patched.getAge());
+        evictAfterCommit(List.of(id));
+        changeFeed.userUpdated(patched);
+        return patched;
+    }
+
+    // Возраст и дата регистрации для статистики — из строки, заблокированной перед DELETE
+    public void deleteUser(Long id, UserVersionCondition condition) {
+        UserResponse deleted = userRepository.removeByIdReturning(id, versions(condition))
+                .orElseThrow(() -> notUpdated(id, condition));
+        changeFeed.userDeleted(deleted);
+        statistics.userDeleted(deleted.getAge(), deleted.getCreatedAt());
+        evictAfterCommit(List.of(id));
+    }
+
+    /**
+     * Удаляет пользователей по списку id чанками по {@link #DELETE_CHUNK_SIZE}.
+     * Отсутствующие id не считаются ошибкой; возвращается число удалённых строк.
+     */
+    public UserBulkDeleteResponse deleteUsers(Collection<Long> ids) {
+        List<Long> distinctIds = ids.stream().distinct().collect(Collectors.toList());
+        if (distinctIds.size() > MAX_BULK_DELETE_IDS) {
+            throw new IllegalArgumentException("No more than " + MAX_BULK_DELETE_IDS + " ids per request");
+        }
+
+        // Удалённые строки (прочитаны с блокировкой перед DELETE): по ним — события ленты и точный вклад в статистику
+        List<UserResponse> deleted = new ArrayList<>();
+        for (int from = 0; from < distinctIds.size(); from += DELETE_CHUNK_SIZE) {
+            int to = Math.min(from + DELETE_CHUNK_SIZE, distinctIds.size());
+            List<UserResponse> removed = userRepository.removeAllByIdInReturning(distinctIds.subList(from, to));
+            removed.forEach(changeFeed::userDeleted);
+            evictAfterCommit(removed.stream().map(UserResponse::getId).toList());
+            deleted.addAll(removed);
+        }
+        statistics.usersDeleted(deleted);
+        return new UserBulkDeleteResponse(distinctIds.size(), deleted.size());
+    }
+
+    /**
+     * Выполняет пакет операций в одной транзакции. Все нужные строки и занятые email
+     * загружаются двумя запросами, а INSERT/UPDATE/DELETE уходят в БД JDBC-пакетами при flush.
+     * Ошибки отдельных операций (404, 409) не прерывают пакет и возвращаются в результатах.
+     *
+     * Параллельная запись между проверками и flush (занятый email, изменённая версия строки) откатывает
+     * пакет; он повторяется один раз в новой транзакции, где проверки увидят эту запись и вернут 409
+     * по операциям. Повторный конфликт или конфликт внутри чужой транзакции — {@link BatchConflictException}.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<UserBatchResult> processBatch(List<UserBatchOperation> operations) {
+        // Внутри чужой транзакции повторять нельзя: после ошибки flush она годится только для отката
+        boolean retry = !TransactionSynchronizationManager.isActualTransactionActive();
+        while (true) {
+            try {
+                return transactionTemplate.execute(status -> applyBatch(operations));
+            } catch (DataIntegrityViolationException | OptimisticLockingFailureException e) {
+                if (!isBatchConflict(e)) {
+                    throw e;
+                }
+                if (!retry) {
+                    throw new BatchConflictException();
+                }
+                retry = false;
+            }
+        }
+    }
+
+    private List<UserBatchResult> applyBatch(List<UserBatchOperation> operations) {
+        Set<Long> ids = operations.stream()
+                .filter(op -> op.getType() != UserBatchOperation.Type.CREATE)
+                .map(UserBatchOperation::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, User> users = ids.isEmpty() ? new HashMap<>() : userRepository.findAllById(ids)
+                .stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        Set<String> emails = operations.stream()
+                .filter(op -> op.getType() != UserBatchOperation.Type.DELETE && op.getUser() != null)
+                .map(op -> op.getUser().getEmail())
+                .collect(Collectors.toSet());
+        // Email, освобождённые в этом же пакете, остаются занятыми: порядок INSERT/UPDATE/DELETE при flush
+        // определяет Hibernate, и повторное использование email в одном пакете могло бы нарушить уникальный индекс
+        Set<String> takenEmails = emails.isEmpty() ? new HashSet<>() : new HashSet<>(userRepository.findExistingEmails(emails));
+
+        List<UserBatchResult> results = new ArrayList<>(operations.size());
+        // События ленты и ответы на обновления строятся после flush: версии обновлённых строк известны только после UPDATE
+        List<Runnable> changes = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            UserBatchOperation op = operations.get(i);
+            UserBatchResult result = switch (op.getType()) {
+                case CREATE -> batchCreate(op, takenEmails, changes);
+                case UPDATE -> batchUpdate(op, users, takenEmails, changes);
+                case DELETE -> batchDelete(op, users, changes);
+            };
+            result.setIndex(i);
+            result.setType(op.getType());
+            results.add(result);
+        }
+
+        userRepository.flush();
+        changes.forEach(Runnable::run);
+        evictAfterCommit(ids);
+        results.stream()
+                .filter(result -> result.getUser() != null)
+                .forEach(result -> emailFilter.add(result.getUser().getEmail()));
+        return results;
+    }
+
+    private UserBatchResult batchCreate(UserBatchOperation op, Set<String> takenEmails, List<Runnable> changes) {
+        UserRequest request = op.getUser();
+        if (request == null) {
+            return batchError(HttpStatus.BAD_REQUEST, "User data is required");
+        }
+        if (!takenEmails.add(request.getEmail())) {
+            return batchError(HttpStatus.CONFLICT, "User with email " + request.getEmail() + " already exists");
+        }
+
+        User user = userRepository.save(new User(request.getName(), request.getEmail(), request.getAge()));
+        statistics.userCreated(user.getAge(), user.getCreatedAt());
+        changes.add(() -> changeFeed.userCreated(user));
+        return batchSuccess(HttpStatus.CREATED, UserMapper.toResponse(user));
+    }
+
+    private UserBatchResult batchUpdate(UserBatchOperation op, Map<Long, User> users, Set<String> takenEmails,
+                                        List<Runnable> changes) {
+        UserRequest request = op.getUser();
+        if (op.getId() == null || request == null) {
+            return batchError(HttpStatus.BAD_REQUEST, "User id and data are required");
+        }
+        User user = users.get(op.getId());
+        if (user == null) {
+            return batchError(HttpStatus.NOT_FOUND, "User not found with id: " + op.getId());
+        }
+        if (!user.getEmail().equals(request.getEmail()) && !takenEmails.add(request.getEmail())) {
+            return batchError(HttpStatus.CONFLICT, "User with email " + request.getEmail() + " already exists");
+        }
+
+        // Сущность управляемая: UPDATE сформирует dirty checking при flush
+        statistics.userAgeChanged(user.getAge(), request.getAge());
+        user.setName(request.getName());
+        user.setEmail(request.getEmail());
+        user.setAge(request.getAge());
+        UserBatchResult result = batchSuccess(HttpStatus.OK, null);
+        changes.add(() -> {
+            result.setUser(UserMapper.toResponse(user));
+            changeFeed.userUpdated(user);
+        });
+        return result;
+    }
+
+    private UserBatchResult batchDelete(UserBatchOperation op, Map<Long, User> users, List<Runnable> changes) {
+        if (op.getId() == null) {
+            return batchError(HttpStatus.BAD_REQUEST, "User id is required");
+        }
+        User user = users.remove(op.getId());
+        if (user == null) {
+            return batchError(HttpStatus.NOT_FOUND, "User not found with id: " + op.getId());
+        }
+
+        userRepository.delete(user);
+        statistics.userDeleted(user.getAge(), user.getCreatedAt());
+        changes.add(() -> changeFeed.userDeleted(user));
+        return batchSuccess(HttpStatus.NO_CONTENT, null);
     }
 
-    public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new RuntimeException("User not found with id: " + id);
+    private static boolean isBatchConflict(RuntimeException e) {
+        return e instanceof OptimisticLockingFailureException || EmailAlreadyExistsException.isEmailConflict(e);
+    }
+
+    // Фильтр отвечает «точно нет» без обращения к БД; при ответе «возможно есть» проверяем в БД
+    private boolean emailTaken(String email) {
+        return emailFilter.mightContain(email) && userRepository.existsByEmail(email);
+    }
+
+    // Flush сразу, чтобы нарушение уникального индекса превратилось в понятную ошибку здесь, а не при коммите.
+    // 409 — только для индекса email; прочие нарушения целостности пробрасываются как есть
+    private User saveChecked(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (EmailAlreadyExistsException.isEmailConflict(e)) {
+                throw new EmailAlreadyExistsException(user.getEmail());
+            }
+            throw e;
+        } catch (OptimisticLockingFailureException e) {
+            throw new UserVersionMismatchException(user.getId());
+        }
+    }
+
+    // Изменения вытесняют из кеша только затронутые id (пакетные — не весь кеш, как @CacheEvict(allEntries)).
+    // Кеш не заполняется до коммита: иначе читатели увидят незакоммиченную строку, а откат оставит её в кеше.
+    // Повтор после коммита убирает запись и общую загрузку (SingleFlight), которые успело начать чтение
+    // до коммита, так что следующее чтение id пойдёт в БД заново
+    private void evictAfterCommit(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Cache cache = cacheManager.getCache(CacheConfig.USERS_CACHE);
+        List<Long> evicted = List.copyOf(ids);
+        runNowAndAfterCommit(() -> evicted.forEach(id -> {
+            if (cache != null) {
+                cache.evict(id);
+            }
+            userLoads.forget(id);
+        }));
+    }
+
+    private static void runNowAndAfterCommit(Runnable action) {
+        action.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
         }
-        userRepository.deleteById(id);
     }
 
-    private UserResponse convertToResponse(User user) {
-        return new UserResponse(
-                user.getId(),
-                user.getName(),
-                user.getEmail(),
-                user.getAge(),
-                user.getCreatedAt()
-        );
+    // Условный UPDATE/DELETE не затронул строк: при заданных версиях различаем «нет строки» и «версия устарела»
+    private UserServiceException notUpdated(Long id, UserVersionCondition condition) {
+        if (condition != null && !condition.isAny() && userRepository.existsById(id)) {
+            return new UserVersionMismatchException(id);
+        }
+        return notFound(id, condition);
+    }
+
+    // If-Match: * требует существующей строки, поэтому её отсутствие — невыполненное условие (412), а не 404
+    private static UserServiceException notFound(Long id, UserVersionCondition condition) {
+        if (condition != null && condition.isAny()) {
+            return new UserVersionMismatchException(id);
+        }
+        return new UserNotFoundException(id);
+    }
+
+    // Допустимые версии для условного UPDATE/DELETE; null — версия не проверяется
+    private static Set<Long> versions(UserVersionCondition condition) {
+        return condition != null ? condition.getVersions() : null;
+    }
+
+    private static UserBatchResult batchSuccess(HttpStatus status, UserResponse user) {
+        return new UserBatchResult(0, null, status.value(), user, null);
+    }
+
+    private static UserBatchResult batchError(HttpStatus status, String error) {
+        return new UserBatchResult(0, null, status.value(), null, error);
     }
 }
@@ -0,0 +1,254 @@
+package com.example.userservice.service;
+
+import com.example.userservice.config.ReplicaRoutingDataSource;
+import com.example.userservice.dto.UserResponse;
+import com.example.userservice.dto.UserStatsResponse;
+import com.example.userservice.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Статистика пользователей в памяти: общее число, гистограмма возрастов и регистрации по дням.
+ * Строится из БД при старте, затем поддерживается инкрементально изменениями UserService
+ * (после коммита транзакции) и периодически сверяется с БД, что исправляет накопленное расхождение.
+ *
+ * Счётчики — {@link LongAdder}: одновременные записи попадают в разные ячейки и не конкурируют
+ * за одну переменную. Чтение не обращается к БД и не зависит от размера таблицы.
+ * Статистика локальна для экземпляра: изменения, сделанные другими экземплярами, видны после сверки.
+ */
+@Component
+@Profile("!reactive")
+public class UserStatistics {
+
+    private static final Logger log = LoggerFactory.getLogger(UserStatistics.class);
+
+    // Десятилетия 0-9 ... 90-99 и 100+
+    static final int AGE_BUCKETS = 11;
+
+    private final UserRepository userRepository;
+    private final Duration reconcileInterval;
+    private final int retentionDays;
+
+    private volatile Aggregates current = new Aggregates();
+    // Изменения, закоммиченные во время сверки: добавляются к её результату, чтобы не потеряться при замене
+    private volatile Aggregates pending;
+    // Изменение применяется под read lock к паре (current, pending), согласованной со сверкой: она ставит
+    // журнал и подменяет счётчики под write lock, поэтому изменение не попадёт между чтениями этих полей
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile LocalDateTime reconciledAt;
+
+    @Autowired
+    public UserStatistics(
+            UserRepository userRepository,
+            @Value("${user-service.stats.reconcile-interval:10m}") Duration reconcileInterval,
+            @Value("${user-service.stats.retention-days:366}") int retentionDays) {
+        this.userRepository = userRepository;
+        this.reconcileInterval = reconcileInterval;
+        this.retentionDays = retentionDays;
+    }
+
+    // Начальная загрузка в фоне, как у EmailMembershipFilter; до её окончания reconciledAt = null
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${user-service.stats.check-interval:5s}",
+            initialDelayString = "${user-service.stats.check-interval:5s}")
+    public void reconcileIfDue() {
+        LocalDateTime last = reconciledAt;
+        if (last == null || !last.plus(reconcileInterval).isAfter(LocalDateTime.now())) {
+            reconcile();
+        }
+    }
+
+    /**
+     * Пересчитывает статистику двумя запросами с GROUP BY и атомарно подменяет текущие счётчики.
+     * Изменение, применённое после начала сверки, попадает и в журнал, который добавляется к результату:
+     * оно не теряется, но если его коммит успел попасть в запрос, учитывается дважды —
+     * такое расхождение исправит следующая сверка.
+     */
+    public synchronized void reconcile() {
+        Aggregates journal = new Aggregates();
+        swapLock.writeLock().lock();
+        try {
+            pending = journal;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        // С основной БД: журнал учитывает изменения с этого момента, и реплика, ещё не получившая
+        // более ранние из них, дала бы результат, который журнал не исправит
+        Aggregates loaded = ReplicaRoutingDataSource.onPrimary(() -> load(now));
+
+        swapLock.writeLock().lock();
+        try {
+            loaded.merge(journal);
+            current = loaded;
+            pending = null;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        reconciledAt = now;
+        log.debug("User statistics reconciled: {} users", loaded.total.sum());
+    }
+
+    private Aggregates load(LocalDateTime now) {
+        Aggregates loaded = new Aggregates();
+        for (Object[] row : userRepository.countUsersByAge()) {
+            loaded.add(bucket(((Number) row[0]).intValue()), null, ((Number) row[1]).longValue());
+        }
+        LocalDate firstDay = firstRetainedDay(now.toLocalDate());
+        for (Object[] row : userRepository.countUsersByCreationDateSince(firstDay.atStartOfDay())) {
+            loaded.signups.computeIfAbsent((LocalDate) row[0], day -> new LongAdder()).add(((Number) row[1]).longValue());
+        }
+        return loaded;
+    }
+
+    public void userCreated(int age, LocalDateTime createdAt) {
+        applyAfterCommit(aggregates -> aggregates.add(bucket(age), retainedDay(createdAt), 1));
+    }
+
+    public void userDeleted(int age, LocalDateTime createdAt) {
+        applyAfterCommit(aggregates -> aggregates.add(bucket(age), retainedDay(createdAt), -1));
+    }
+
+    public void userAgeChanged(int oldAge, int newAge) {
+        int from = bucket(oldAge);
+        int to = bucket(newAge);
+        if (from != to) {
+            applyAfterCommit(aggregates -> aggregates.move(from, to));
+        }
+    }
+
+    // Массовое удаление: строки, возвращённые DELETE, вычитаются одним изменением
+    public void usersDeleted(Collection<UserResponse> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        applyAfterCommit(aggregates -> users.forEach(user ->
+                aggregates.add(bucket(user.getAge()), retainedDay(user.getCreatedAt()), -1)));
+    }
+
+    public UserStatsResponse snapshot(int days) {
+        Aggregates aggregates = current;
+        int window = Math.min(Math.max(days, 1), retentionDays);
+
+        Map<String, Long> ages = new LinkedHashMap<>();
+        for (int i = 0; i < AGE_BUCKETS; i++) {
+            ages.put(bucketLabel(i), aggregates.ages[i].sum());
+        }
+
+        Map<LocalDate, Long> signups = new LinkedHashMap<>();
+        LocalDate today = LocalDate.now();
+        for (LocalDate day = today.minusDays(window - 1); !day.isAfter(today); day = day.plusDays(1)) {
+            LongAdder count = aggregates.signups.get(day);
+            signups.put(day, count != null ? count.sum() : 0L);
+        }
+        return new UserStatsResponse(aggregates.total.sum(), ages, signups, reconciledAt);
+    }
+
+    // Откатившаяся транзакция не должна менять статистику, поэтому изменение применяется только после коммита
+    private void applyAfterCommit(Consumer<Aggregates> change) {
+        Runnable apply = () -> {
+            swapLock.readLock().lock();
+            try {
+                change.accept(current);
+                Aggregates journal = pending;
+                if (journal != null) {
+                    change.accept(journal);
+                }
+            } finally {
+                swapLock.readLock().unlock();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private LocalDate firstRetainedDay(LocalDate today) {
+        return today.minusDays(retentionDays - 1);
+    }
+
+    // Дни старше окна хранения не учитываются, как и при сверке
+    private LocalDate retainedDay(LocalDateTime createdAt) {
+        if (createdAt == null) {
+            return null;
+        }
+        LocalDate day = createdAt.toLocalDate();
+        return day.isBefore(firstRetainedDay(LocalDate.now())) ? null : day;
+    }
+
+    static int bucket(int age) {
+        return Math.min(Math.max(age, 0) / 10, AGE_BUCKETS - 1);
+    }
+
+    static String bucketLabel(int bucket) {
+        return bucket == AGE_BUCKETS - 1 ? bucket * 10 + "+" : bucket * 10 + "-" + (bucket * 10 + 9);
+    }
+
+    private static final class Aggregates {
+        final LongAdder total = new LongAdder();
+        final LongAdder[] ages = new LongAdder[AGE_BUCKETS];
+        final ConcurrentHashMap<LocalDate, LongAdder> signups = new ConcurrentHashMap<>();
+
+        Aggregates() {
+            for (int i = 0; i < AGE_BUCKETS; i++) {
+                ages[i] = new LongAdder();
+            }
+        }
+
+        void add(int bucket, LocalDate day, long delta) {
+            total.add(delta);
+            ages[bucket].add(delta);
+            if (day != null) {
+                signups.computeIfAbsent(day, d -> new LongAdder()).add(delta);
+            }
+        }
+
+        void move(int fromBucket, int toBucket) {
+            ages[fromBucket].decrement();
+            ages[toBucket].increment();
+        }
+
+        void merge(Aggregates other) {
+            total.add(other.total.sum());
+            for (int i = 0; i < AGE_BUCKETS; i++) {
+                ages[i].add(other.ages[i].sum());
+            }
+            other.signups.forEach((day, count) -> signups.computeIfAbsent(day, d -> new LongAdder()).add(count.sum()));
+        }
+    }
+}
@@ -0,0 +1,20 @@
+-- Обновление существующей базы PostgreSQL, созданной прежними версиями (ddl-auto: update этого не делает).
+-- Скрипт повторяемый: его можно выполнять на уже обновлённой базе.
+-- psql -d user_service -f src/main/resources/db/postgresql-upgrade.sql
+
+-- Уникальность email обеспечивает индекс idx_user_email: по его имени нарушение отличается от других (409).
+-- Прежнее безымянное ограничение unique на столбце (users_email_key) срабатывало раньше и давало бы 400
+create unique index if not exists idx_user_email on users (email);
+alter table users drop constraint if exists users_email_key;
+
+-- id выдаёт последовательность users_seq с шагом 50 (pooled-оптимизатор Hibernate: значение v даёт
+-- блок [v - 49, v]). В базе, где id выдавал IDENTITY, новая последовательность начала бы с 1
+-- и столкнулась с существующими id: переводим её за максимальный id (назад она не сдвигается).
+-- Следующий nextval вернёт max(id) + 50, то есть блок начнётся с max(id) + 1
+create sequence if not exists users_seq start with 1 increment by 50;
+select setval('users_seq', greatest((select max(id) from users), (select last_value from users_seq)));
+
+-- События ленты user_changes нумеруются в порядке id, поэтому user_changes_seq выдаёт id по одному
+-- (allocationSize = 1). Прежняя версия создала её с шагом 50: Hibernate откажется стартовать при несовпадении шага.
+-- Выданные блоками id не превышают last_value, так что шаг 1 продолжает после них
+alter sequence if exists user_changes_seq increment by 1;
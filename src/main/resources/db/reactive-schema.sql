@@ -0,0 +1,17 @@
+-- Схема таблицы users для реактивного режима: применяется при каждом старте (ReactiveConfig), поэтому повторяемая.
+-- Совпадает с той, что создаёт Hibernate (ddl-auto) для сущности User; существующую базу прежних версий
+-- сначала обновляет db/postgresql-upgrade.sql
+create sequence if not exists users_seq start with 1 increment by 50;
+
+create table if not exists users (
+    id bigint not null primary key,
+    name varchar(100) not null,
+    email varchar(150) not null,
+    age integer not null,
+    created_at timestamp(6) not null,
+    version bigint default 0 not null
+);
+
+create unique index if not exists idx_user_email on users (email);
+create index if not exists idx_user_age on users (age);
+create index if not exists idx_user_created_at on users (created_at);
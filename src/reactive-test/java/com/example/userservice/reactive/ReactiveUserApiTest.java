@@ -0,0 +1,190 @@
+package com.example.userservice.reactive;
+
+import com.example.userservice.UserServiceApplication;
+import com.example.userservice.dto.UserPageResponse;
+import com.example.userservice.dto.UserRequest;
+import com.example.userservice.dto.UserResponse;
+import io.r2dbc.pool.ConnectionPool;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest(classes = UserServiceApplication.class, properties = {
+        "user-service.r2dbc.url=r2dbc:h2:mem:///reactive-test?options=DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "user-service.r2dbc.username="
+})
+@ActiveProfiles({"test", "reactive"})
+class ReactiveUserApiTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private ConnectionPool connectionFactory;
+
+    @Autowired
+    private ReactiveUserRepository reactiveUserRepository;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToApplicationContext(context).build();
+        DatabaseClient.create(connectionFactory).sql("delete from users").then().block();
+    }
+
+    @Test
+    void createGetUpdateDelete_ShouldFollowServletContract() {
+        UserResponse created = client.post().uri("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserRequest("Reactive User", "reactive@example.com", 30))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().valueEquals("ETag", "\"0\"")
+                .expectBody(UserResponse.class)
+                .returnResult().getResponseBody();
+        assertNotNull(created);
+        assertNotNull(created.getId());
+
+        client.get().uri("/api/users/{id}", created.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.email").isEqualTo("reactive@example.com");
+
+        client.get().uri("/api/users/{id}", created.getId())
+                .header("If-None-Match", "\"0\"")
+                .exchange()
+                .expectStatus().isNotModified();
+
+        client.put().uri("/api/users/{id}", created.getId())
+                .header("If-Match", "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserRequest("Reactive Updated", "reactive@example.com", 31))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"1\"")
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Reactive Updated");
+
+        client.patch().uri("/api/users/{id}", created.getId())
+                .header("If-Match", "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("age", 40))
+                .exchange()
+                .expectStatus().isEqualTo(412);
+
+        // Совпадает любой тег списка If-Match
+        client.patch().uri("/api/users/{id}", created.getId())
+                .header("If-Match", "\"0\", \"1\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("age", 40))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"2\"");
+
+        client.delete().uri("/api/users/{id}", created.getId())
+                .header("If-Match", "*")
+                .exchange()
+                .expectStatus().isNoContent();
+
+        // * не выполняется для отсутствующего пользователя
+        client.delete().uri("/api/users/{id}", created.getId())
+                .header("If-Match", "*")
+                .exchange()
+                .expectStatus().isEqualTo(412);
+
+        client.get().uri("/api/users/{id}", created.getId())
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(404);
+    }
+
+    @Test
+    void createUser_WithDuplicateEmailOrInvalidData_ShouldReturnConflictOrBadRequest() {
+        reactiveUserRepository.insert("First", "taken@example.com", 20).block();
+
+        client.post().uri("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserRequest("Second", "taken@example.com", 21))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+
+        client.post().uri("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserRequest("", "not-an-email", -1))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Validation failed")
+                .jsonPath("$.errors.email").exists()
+                .jsonPath("$.errors.age").exists();
+    }
+
+    @Test
+    void listAndExport_ShouldPageByCursorAndStreamEveryUser() {
+        for (int i = 0; i < 5; i++) {
+            reactiveUserRepository.insert("User " + i, "user" + i + "@example.com", 20 + i * 10).block();
+        }
+
+        UserPageResponse first = client.get().uri("/api/users?limit=3")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(UserPageResponse.class)
+                .returnResult().getResponseBody();
+        assertNotNull(first);
+        assertEquals(3, first.getContent().size());
+        assertNotNull(first.getNext());
+
+        client.get().uri("/api/users?limit=3&after={after}", first.getNext())
+                .exchange()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(2)
+                .jsonPath("$.next").doesNotExist();
+
+        client.get().uri("/api/users?minAge=30&maxAge=40")
+                .exchange()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(2);
+
+        List<UserResponse> exported = client.get().uri("/api/users/export")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(UserResponse.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+        assertNotNull(exported);
+        assertEquals(5, exported.size());
+
+        Long firstId = first.getContent().get(0).getId();
+        client.get().uri("/api/users?ids={a},{b}", firstId, 999_999L)
+                .exchange()
+                .expectBody()
+                .jsonPath("$.users.length()").isEqualTo(1)
+                .jsonPath("$.missing[0]").isEqualTo(999_999);
+
+        client.delete().uri("/api/users?ids={a},{b}", firstId, 999_999L)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.requested").isEqualTo(2)
+                .jsonPath("$.deleted").isEqualTo(1);
+        assertFalse(reactiveUserRepository.existsById(firstId).block());
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.userservice.reactive;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+import org.springframework.r2dbc.connection.init.ConnectionFactoryInitializer;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.queryParam;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Реактивный режим (профиль reactive): /api/users на WebFlux и R2DBC вместо Tomcat и JPA.
+ * Бины JPA-стека в этом профиле не создаются (они помечены {@code @Profile("!reactive")}),
+ * автоконфигурация DataSource и JPA отключена в application-reactive.yml.
+ *
+ * Пул R2DBC настраивается свойствами {@code user-service.r2dbc.*}. Классы режима и его зависимости
+ * (WebFlux, R2DBC) собираются только в Maven-профиле reactive: mvn -Preactive package.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool connectionFactory(
+            @Value("${user-service.r2dbc.url}") String url,
+            @Value("${user-service.r2dbc.username:}") String username,
+            @Value("${user-service.r2dbc.password:}") String password,
+            @Value("${user-service.r2dbc.pool.max-size:20}") int maxSize,
+            @Value("${user-service.r2dbc.pool.max-acquire-time:5s}") Duration maxAcquireTime) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        if (!username.isEmpty()) {
+            options.option(ConnectionFactoryOptions.USER, username)
+                    .option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+                .initialSize(Math.min(10, maxSize))
+                .maxSize(maxSize)
+                .maxAcquireTime(maxAcquireTime)
+                .build());
+    }
+
+    @Bean
+    public ReactiveUserRepository reactiveUserRepository(ConnectionPool connectionFactory) {
+        return new ReactiveUserRepository(connectionFactory);
+    }
+
+    @Bean
+    public UserHandler userHandler(ReactiveUserRepository reactiveUserRepository, Validator validator) {
+        return new UserHandler(reactiveUserRepository, validator);
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> userRoutes(UserHandler handler) {
+        return route()
+                .path("/api/users", users -> users
+                        .POST("/batch", handler::notSupported)
+                        .GET("/stats", handler::notSupported)
+                        .GET("/changes", handler::notSupported)
+                        .POST("/lookup", handler::lookupUsers)
+                        .GET("/export", handler::exportUsers)
+                        .GET("/{id}", handler::getUserById)
+                        .PUT("/{id}", handler::updateUser)
+                        .PATCH("/{id}", handler::patchUser)
+                        .DELETE("/{id}", handler::deleteUser)
+                        .GET("", queryParam("ids", ids -> true), handler::getUsersByIds)
+                        .GET("", handler::getUsers)
+                        .POST("", handler::createUser)
+                        .DELETE("", queryParam("ids", ids -> true), handler::deleteUsers))
+                // defer: синхронные исключения обработчика (неверный id, слишком длинный список) тоже попадают сюда
+                .filter((request, next) -> Mono.defer(() -> next.handle(request)).onErrorResume(UserHandler::errorResponse))
+                .build();
+    }
+
+    // Схема применяется при старте, до приёма запросов: скрипт повторяемый (if not exists), поэтому безопасен
+    // и для базы, которую уже создал JPA-режим, и для пустой (H2 в тестах и бенчмарках, новая PostgreSQL)
+    @Bean
+    public ConnectionFactoryInitializer reactiveSchemaInitializer(
+            ConnectionPool connectionFactory,
+            @Value("${user-service.r2dbc.schema:classpath:db/reactive-schema.sql}") Resource schema) {
+        ConnectionFactoryInitializer initializer = new ConnectionFactoryInitializer();
+        initializer.setConnectionFactory(connectionFactory);
+        initializer.setDatabasePopulator(new ResourceDatabasePopulator(schema));
+        return initializer;
+    }
+}
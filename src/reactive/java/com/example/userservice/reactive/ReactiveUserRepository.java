@@ -0,0 +1,241 @@
+package com.example.userservice.reactive;
+
+import com.example.userservice.dto.UserFilter;
+import com.example.userservice.dto.UserResponse;
+import com.example.userservice.exception.EmailAlreadyExistsException;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Доступ к таблице users через R2DBC для реактивного режима. Те же запросы, что у UserRepository,
+ * но строки читаются сразу в UserResponse, а соединение берётся из пула только на время запроса.
+ *
+ * SQL общий для PostgreSQL и H2 (в тестах): параметры $1, $2, ..., функция nextval.
+ */
+public class ReactiveUserRepository {
+
+    private static final String COLUMNS = "id, name, email, age, created_at, version";
+    // allocationSize последовательности users_seq у сущности User
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    private final ConnectionFactory connectionFactory;
+
+    // Текущий блок id [nextId, lastId], полученный из последовательности
+    private long nextId = 1;
+    private long lastId = 0;
+
+    public ReactiveUserRepository(ConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    public Mono<UserResponse> insert(String name, String email, int age) {
+        LocalDateTime createdAt = LocalDateTime.now();
+        return withConnection(connection -> nextId(connection)
+                .flatMap(id -> Mono.from(connection
+                                .createStatement("insert into users (" + COLUMNS + ") values ($1, $2, $3, $4, $5, 0)")
+                                .bind(0, id).bind(1, name).bind(2, email).bind(3, age).bind(4, createdAt)
+                                .execute())
+                        .flatMap(result -> Mono.from(result.getRowsUpdated()))
+                        .thenReturn(new UserResponse(id, name, email, age, createdAt, 0L))))
+                .next()
+                .onErrorMap(ReactiveUserRepository::isEmailConflict, e -> new EmailAlreadyExistsException(email));
+    }
+
+    public Mono<UserResponse> findById(long id) {
+        return query("select " + COLUMNS + " from users where id = $1", id).next();
+    }
+
+    public Mono<Boolean> existsById(long id) {
+        return withConnection(connection -> Flux.from(connection.createStatement("select 1 from users where id = $1")
+                        .bind(0, id)
+                        .execute())
+                .flatMap(result -> result.map(row -> Boolean.TRUE)))
+                .hasElements();
+    }
+
+    // Тот же динамический запрос, что в UserRepositoryImpl: в WHERE попадают только заданные условия
+    public Flux<UserResponse> findAfter(long after, UserFilter filter, int limit) {
+        List<String> conditions = new ArrayList<>(5);
+        List<Object> args = new ArrayList<>(5);
+        if (after > 0) {
+            args.add(after);
+            conditions.add("id > $" + args.size());
+        }
+        if (filter.getMinAge() != null) {
+            args.add(filter.getMinAge());
+            conditions.add("age >= $" + args.size());
+        }
+        if (filter.getMaxAge() != null) {
+            args.add(filter.getMaxAge());
+            conditions.add("age <= $" + args.size());
+        }
+        if (filter.getCreatedAfter() != null) {
+            args.add(filter.getCreatedAfter());
+            conditions.add("created_at >= $" + args.size());
+        }
+        if (filter.getCreatedBefore() != null) {
+            args.add(filter.getCreatedBefore());
+            conditions.add("created_at < $" + args.size());
+        }
+
+        String sql = "select " + COLUMNS + " from users" +
+                (conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions)) +
+                " order by id limit " + limit;
+        return query(sql, args.toArray());
+    }
+
+    public Flux<UserResponse> findByIdIn(Collection<Long> ids) {
+        return query("select " + COLUMNS + " from users where id in (" + placeholders(ids.size()) + ")", ids.toArray());
+    }
+
+    // Строки запрашиваются у БД по мере спроса подписчика (fetch size — размер порции курсора PostgreSQL)
+    public Flux<UserResponse> streamAll() {
+        return withConnection(connection -> Flux.from(connection
+                        .createStatement("select " + COLUMNS + " from users order by id")
+                        .fetchSize(500)
+                        .execute())
+                .flatMap(result -> result.map(ReactiveUserRepository::toResponse)));
+    }
+
+    /**
+     * UPDATE только заданных (не null) полей с увеличением версии; при {@code versions != null}
+     * строка обновляется, лишь если её версия есть в этом списке. Возвращает число изменённых строк.
+     */
+    public Mono<Long> update(long id, String name, String email, Integer age, Collection<Long> versions) {
+        if (versions != null && versions.isEmpty()) {
+            return Mono.just(0L);
+        }
+        List<String> assignments = new ArrayList<>(4);
+        List<Object> args = new ArrayList<>(5);
+        args.add(id);
+        if (name != null) {
+            args.add(name);
+            assignments.add("name = $" + args.size());
+        }
+        if (email != null) {
+            args.add(email);
+            assignments.add("email = $" + args.size());
+        }
+        if (age != null) {
+            args.add(age);
+            assignments.add("age = $" + args.size());
+        }
+        assignments.add("version = version + 1");
+        String where = " where id = $1";
+        if (versions != null) {
+            where += " and version in (" + placeholders(args.size() + 1, versions.size()) + ")";
+            args.addAll(versions);
+        }
+
+        return execute("update users set " + String.join(", ", assignments) + where, args.toArray())
+                .onErrorMap(ReactiveUserRepository::isEmailConflict, e -> new EmailAlreadyExistsException(email));
+    }
+
+    // При versions != null строка удаляется, лишь если её версия есть в этом списке
+    public Mono<Long> deleteById(long id, Collection<Long> versions) {
+        if (versions == null) {
+            return execute("delete from users where id = $1", id);
+        }
+        if (versions.isEmpty()) {
+            return Mono.just(0L);
+        }
+        List<Object> args = new ArrayList<>(versions.size() + 1);
+        args.add(id);
+        args.addAll(versions);
+        return execute("delete from users where id = $1 and version in (" + placeholders(2, versions.size()) + ")",
+                args.toArray());
+    }
+
+    public Mono<Long> deleteByIdIn(Collection<Long> ids) {
+        return execute("delete from users where id in (" + placeholders(ids.size()) + ")", ids.toArray());
+    }
+
+    /**
+     * id выделяются так же, как pooled-оптимизатором Hibernate: значение v из users_seq даёт блок
+     * [v - 49, v], и обращение к последовательности нужно одной вставке из 50. Поэтому id идут подряд
+     * и не пересекаются с id, выданными JPA-режимом, если оба работают с одной БД.
+     */
+    private Mono<Long> nextId(Connection connection) {
+        synchronized (this) {
+            if (nextId <= lastId) {
+                return Mono.just(nextId++);
+            }
+        }
+        return Flux.from(connection.createStatement("select nextval('users_seq')").execute())
+                .flatMap(result -> result.map(row -> row.get(0, Long.class)))
+                .next()
+                .map(this::startBlock);
+    }
+
+    // Одновременно полученные блоки не пересекаются; остаток вытесненного блока просто не используется
+    private synchronized long startBlock(long hi) {
+        nextId = Math.max(1, hi - ID_ALLOCATION_SIZE + 1);
+        lastId = hi;
+        return nextId++;
+    }
+
+    private Flux<UserResponse> query(String sql, Object... args) {
+        return withConnection(connection -> Flux.from(bind(connection.createStatement(sql), args).execute())
+                .flatMap(result -> result.map(ReactiveUserRepository::toResponse)));
+    }
+
+    private Mono<Long> execute(String sql, Object... args) {
+        return withConnection(connection -> Flux.from(bind(connection.createStatement(sql), args).execute())
+                .flatMap(Result::getRowsUpdated))
+                .reduce(0L, Long::sum);
+    }
+
+    // Соединение возвращается в пул по завершении, ошибке или отмене подписки
+    private <T> Flux<T> withConnection(Function<Connection, Publisher<T>> work) {
+        return Flux.usingWhen(connectionFactory.create(), work, Connection::close);
+    }
+
+    // Конфликт — только нарушение индекса email; прочие ошибки целостности (длина, NOT NULL) уходят как есть
+    private static boolean isEmailConflict(Throwable error) {
+        return error instanceof R2dbcDataIntegrityViolationException && EmailAlreadyExistsException.isEmailConflict(error);
+    }
+
+    private static Statement bind(Statement statement, Object... args) {
+        for (int i = 0; i < args.length; i++) {
+            statement.bind(i, args[i]);
+        }
+        return statement;
+    }
+
+    private static String placeholders(int count) {
+        return placeholders(1, count);
+    }
+
+    // $first, $first+1, ... — count параметров
+    private static String placeholders(int first, int count) {
+        StringBuilder sql = new StringBuilder(count * 6);
+        for (int i = first; i < first + count; i++) {
+            sql.append(i > first ? ", $" : "$").append(i);
+        }
+        return sql.toString();
+    }
+
+    private static UserResponse toResponse(Readable row) {
+        return new UserResponse(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                row.get("email", String.class),
+                row.get("age", Integer.class),
+                row.get("created_at", LocalDateTime.class),
+                row.get("version", Long.class)
+        );
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.userservice.reactive;
+
+import com.example.userservice.controller.UserETags;
+import com.example.userservice.dto.UserBulkDeleteResponse;
+import com.example.userservice.dto.UserFilter;
+import com.example.userservice.dto.UserMultiGetRequest;
+import com.example.userservice.dto.UserMultiGetResponse;
+import com.example.userservice.dto.UserPageResponse;
+import com.example.userservice.dto.UserPatchRequest;
+import com.example.userservice.dto.UserRequest;
+import com.example.userservice.dto.UserResponse;
+import com.example.userservice.dto.UserVersionCondition;
+import com.example.userservice.exception.EmailAlreadyExistsException;
+import com.example.userservice.exception.GlobalExceptionHandler.ErrorResponse;
+import com.example.userservice.exception.UserNotFoundException;
+import com.example.userservice.exception.UserVersionMismatchException;
+import com.example.userservice.service.UserService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Обработчики /api/users для реактивного режима: тот же контракт, что у UserController
+ * (коды ответов, ETag/If-Match, формат ошибок), но без блокирующих вызовов —
+ * поток Netty не ждёт БД, и один экземпляр держит тысячи медленных клиентов.
+ *
+ * Пакетные операции (/batch), статистика (/stats) и лента изменений (/changes) в этом режиме
+ * не поддерживаются: они опираются на JPA-пакетирование, счётчики UserStatistics и outbox UserChangeFeed.
+ */
+public class UserHandler {
+
+    private final ReactiveUserRepository userRepository;
+    private final Validator validator;
+
+    public UserHandler(ReactiveUserRepository userRepository, Validator validator) {
+        this.userRepository = userRepository;
+        this.validator = validator;
+    }
+
+    public Mono<ServerResponse> createUser(ServerRequest request) {
+        return body(request, UserRequest.class)
+                .flatMap(user -> userRepository.insert(user.getName(), user.getEmail(), user.getAge()))
+                .flatMap(user -> ServerResponse.status(HttpStatus.CREATED).eTag(UserETags.eTag(user)).bodyValue(user));
+    }
+
+    // Страница ограничена MAX_PAGE_SIZE строками и собирается целиком: в ответе за списком следует курсор next
+    public Mono<ServerResponse> getUsers(ServerRequest request) {
+        int pageSize = Math.min(Math.max(intParam(request, "limit", UserService.DEFAULT_PAGE_SIZE), 1), UserService.MAX_PAGE_SIZE);
+        long after = request.queryParam("after").map(Long::parseLong).orElse(0L);
+        UserFilter filter = new UserFilter(
+                request.queryParam("minAge").map(Integer::valueOf).orElse(null),
+                request.queryParam("maxAge").map(Integer::valueOf).orElse(null),
+                request.queryParam("createdAfter").map(LocalDateTime::parse).orElse(null),
+                request.queryParam("createdBefore").map(LocalDateTime::parse).orElse(null));
+
+        return userRepository.findAfter(after, filter, pageSize + 1)
+                .collectList()
+                .flatMap(content -> {
+                    boolean hasNext = content.size() > pageSize;
+                    List<UserResponse> page = hasNext ? content.subList(0, pageSize) : content;
+                    Long next = hasNext ? page.get(page.size() - 1).getId() : null;
+                    return ServerResponse.ok().bodyValue(new UserPageResponse(page, next));
+                });
+    }
+
+    public Mono<ServerResponse> getUsersByIds(ServerRequest request) {
+        return usersByIds(idsParam(request));
+    }
+
+    public Mono<ServerResponse> lookupUsers(ServerRequest request) {
+        return body(request, UserMultiGetRequest.class)
+                .flatMap(lookup -> usersByIds(lookup.getIds()));
+    }
+
+    // NDJSON: строки запрашиваются у БД по мере того, как клиент забирает ответ
+    public Mono<ServerResponse> exportUsers(ServerRequest request) {
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(userRepository.streamAll(), UserResponse.class);
+    }
+
+    // При совпадении If-None-Match с ETag отвечаем 304 без тела
+    public Mono<ServerResponse> getUserById(ServerRequest request) {
+        long id = idVariable(request);
+        return userRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException(id)))
+                .flatMap(user -> request.checkNotModified(UserETags.eTag(user))
+                        .switchIfEmpty(Mono.defer(() -> ServerResponse.ok().eTag(UserETags.eTag(user)).bodyValue(user))));
+    }
+
+    public Mono<ServerResponse> updateUser(ServerRequest request) {
+        long id = idVariable(request);
+        UserVersionCondition condition = versionCondition(request);
+        return body(request, UserRequest.class)
+                .flatMap(user -> updateAndRead(id, condition,
+                        userRepository.update(id, user.getName(), user.getEmail(), user.getAge(), versions(condition))));
+    }
+
+    public Mono<ServerResponse> patchUser(ServerRequest request) {
+        long id = idVariable(request);
+        UserVersionCondition condition = versionCondition(request);
+        return body(request, UserPatchRequest.class)
+                .flatMap(patch -> updateAndRead(id, condition,
+                        userRepository.update(id, patch.getName(), patch.getEmail(), patch.getAge(), versions(condition))));
+    }
+
+    public Mono<ServerResponse> deleteUser(ServerRequest request) {
+        long id = idVariable(request);
+        UserVersionCondition condition = versionCondition(request);
+        return userRepository.deleteById(id, versions(condition))
+                .flatMap(deleted -> deleted == 0
+                        ? notUpdated(id, condition)
+                        : ServerResponse.noContent().build());
+    }
+
+    public Mono<ServerResponse> deleteUsers(ServerRequest request) {
+        List<Long> ids = distinct(idsParam(request), UserService.MAX_BULK_DELETE_IDS);
+        return Flux.fromIterable(chunks(ids, UserService.DELETE_CHUNK_SIZE))
+                .concatMap(userRepository::deleteByIdIn)
+                .reduce(0L, Long::sum)
+                .flatMap(deleted -> ServerResponse.ok().bodyValue(new UserBulkDeleteResponse(ids.size(), deleted.intValue())));
+    }
+
+    public Mono<ServerResponse> notSupported(ServerRequest request) {
+        return ServerResponse.status(HttpStatus.NOT_IMPLEMENTED).build();
+    }
+
+    private Mono<ServerResponse> usersByIds(Collection<Long> requestedIds) {
+        List<Long> ids = distinct(requestedIds, UserMultiGetRequest.MAX_IDS);
+        return Flux.fromIterable(chunks(ids, UserService.MULTI_GET_CHUNK_SIZE))
+                .concatMap(userRepository::findByIdIn)
+                .collectMap(UserResponse::getId, Function.identity())
+                .flatMap(found -> {
+                    List<UserResponse> users = new ArrayList<>(found.size());
+                    List<Long> missing = new ArrayList<>();
+                    for (Long id : ids) {
+                        UserResponse user = found.get(id);
+                        if (user != null) {
+                            users.add(user);
+                        } else {
+                            missing.add(id);
+                        }
+                    }
+                    return ServerResponse.ok().bodyValue(new UserMultiGetResponse(users, missing));
+                });
+    }
+
+    private Mono<ServerResponse> updateAndRead(long id, UserVersionCondition condition, Mono<Long> update) {
+        return update.flatMap(updated -> updated == 0
+                ? notUpdated(id, condition)
+                : userRepository.findById(id)
+                        .switchIfEmpty(Mono.error(() -> new UserNotFoundException(id)))
+                        .flatMap(user -> ServerResponse.ok().eTag(UserETags.eTag(user)).bodyValue(user)));
+    }
+
+    // Условный UPDATE/DELETE не затронул строк: при заданных версиях различаем «нет строки» и «версия устарела»;
+    // If-Match: * требует существующей строки, поэтому её отсутствие — тоже 412, как в UserService
+    private Mono<ServerResponse> notUpdated(long id, UserVersionCondition condition) {
+        if (condition != null && condition.isAny()) {
+            return Mono.error(new UserVersionMismatchException(id));
+        }
+        Mono<Boolean> exists = condition != null ? userRepository.existsById(id) : Mono.just(false);
+        return exists.flatMap(found -> Mono.error(found
+                ? new UserVersionMismatchException(id)
+                : new UserNotFoundException(id)));
+    }
+
+    private <T> Mono<T> body(ServerRequest request, Class<T> type) {
+        return request.bodyToMono(type)
+                .switchIfEmpty(Mono.error(() -> new ServerWebInputException("Request body is required")))
+                .flatMap(body -> {
+                    Set<ConstraintViolation<T>> violations = validator.validate(body);
+                    return violations.isEmpty()
+                            ? Mono.just(body)
+                            : Mono.error(new ConstraintViolationException(violations));
+                });
+    }
+
+    private static List<Long> distinct(Collection<Long> ids, int max) {
+        List<Long> distinctIds = ids.stream().distinct().collect(Collectors.toList());
+        if (distinctIds.size() > max) {
+            throw new IllegalArgumentException("No more than " + max + " ids per request");
+        }
+        return distinctIds;
+    }
+
+    private static List<List<Long>> chunks(List<Long> ids, int size) {
+        List<List<Long>> chunks = new ArrayList<>((ids.size() + size - 1) / size);
+        for (int from = 0; from < ids.size(); from += size) {
+            chunks.add(ids.subList(from, Math.min(from + size, ids.size())));
+        }
+        return chunks;
+    }
+
+    // ids=1,2,3 или ids=1&ids=2 — как привязка List<Long> в UserController
+    private static List<Long> idsParam(ServerRequest request) {
+        List<Long> ids = new ArrayList<>();
+        for (String value : request.queryParams().getOrDefault("ids", List.of())) {
+            for (String id : value.split(",")) {
+                if (!id.isBlank()) {
+                    ids.add(Long.parseLong(id.trim()));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static int intParam(ServerRequest request, String name, int defaultValue) {
+        return request.queryParam(name).map(Integer::parseInt).orElse(defaultValue);
+    }
+
+    private static long idVariable(ServerRequest request) {
+        return Long.parseLong(request.pathVariable("id"));
+    }
+
+    // Все строки If-Match, как у @RequestHeader String в UserController
+    private static UserVersionCondition versionCondition(ServerRequest request) {
+        List<String> ifMatch = request.headers().header(HttpHeaders.IF_MATCH);
+        return UserETags.versionCondition(ifMatch.isEmpty() ? null : String.join(",", ifMatch));
+    }
+
+    private static Set<Long> versions(UserVersionCondition condition) {
+        return condition != null ? condition.getVersions() : null;
+    }
+
+    /**
+     * Ошибки в тот же формат и с теми же статусами, что у GlobalExceptionHandler.
+     * Ошибки с собственным статусом (например, неразборчивое тело запроса) обрабатывает WebFlux.
+     */
+    static Mono<ServerResponse> errorResponse(Throwable error) {
+        if (error instanceof ResponseStatusException || !(error instanceof RuntimeException)) {
+            return Mono.error(error);
+        }
+        if (error instanceof ConstraintViolationException e) {
+            Map<String, String> errors = e.getConstraintViolations().stream()
+                    .collect(Collectors.toMap(v -> v.getPropertyPath().toString(), ConstraintViolation::getMessage,
+                            (first, second) -> first));
+            return error(HttpStatus.BAD_REQUEST, new ErrorResponse(HttpStatus.BAD_REQUEST.value(), "Validation failed", errors));
+        }
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+        if (error instanceof UserNotFoundException) {
+            status = HttpStatus.NOT_FOUND;
+        } else if (error instanceof UserVersionMismatchException) {
+            status = HttpStatus.PRECONDITION_FAILED;
+        } else if (error instanceof EmailAlreadyExistsException) {
+            status = HttpStatus.CONFLICT;
+        }
+        return error(status, new ErrorResponse(status.value(), error.getMessage()));
+    }
+
+    private static Mono<ServerResponse> error(HttpStatus status, ErrorResponse body) {
+        return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON).bodyValue(body);
+    }
+}
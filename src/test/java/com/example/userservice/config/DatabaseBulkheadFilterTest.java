@@ -0,0 +1,68 @@
+package com.example.userservice.config;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class DatabaseBulkheadFilterTest {
+
+    @Test
+    void withFreePermit_ShouldPassRequestAndReleasePermit() throws Exception {
+        // Given
+        DatabaseBulkheadFilter filter = new DatabaseBulkheadFilter(1, Duration.ofMillis(10));
+        FilterChain chain = mock(FilterChain.class);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/users/1"), response, chain);
+
+        // Then
+        verify(chain).doFilter(any(), any());
+        assertEquals(200, response.getStatus());
+        assertEquals(1, filter.availablePermits());
+    }
+
+    @Test
+    void whenSaturated_ShouldRejectWith503AndRetryAfter() throws Exception {
+        // Given
+        DatabaseBulkheadFilter filter = new DatabaseBulkheadFilter(1, Duration.ofMillis(10));
+        FilterChain chain = mock(FilterChain.class);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        doAnswer(invocation -> {
+            filter.doFilter(new MockHttpServletRequest("GET", "/api/users/2"), response, mock(FilterChain.class));
+            return null;
+        }).when(chain).doFilter(any(), any());
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/users/1"), new MockHttpServletResponse(), chain);
+
+        // Then
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+        assertEquals(1, filter.availablePermits());
+    }
+
+    @Test
+    void nonApiRequest_ShouldNotTakePermit() throws Exception {
+        // Given
+        DatabaseBulkheadFilter filter = new DatabaseBulkheadFilter(1, Duration.ofMillis(10));
+        FilterChain chain = mock(FilterChain.class);
+        doAnswer(invocation -> {
+            assertEquals(1, filter.availablePermits());
+            return null;
+        }).when(chain).doFilter(any(), any());
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), new MockHttpServletResponse(), chain);
+
+        // Then
+        verify(chain).doFilter(any(), any());
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.userservice.config;
+
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.service.UserStatistics;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Две базы H2 вместо основной и реплик; «репликация» — ручное копирование строк в тесте
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+        "user-service.read-replicas.enabled=true",
+        "user-service.read-replicas.urls=jdbc:h2:mem:replica-1;DB_CLOSE_DELAY=-1,jdbc:h2:mem:replica-2;DB_CLOSE_DELAY=-1",
+        // Окно с запасом: cookie ставится до обработки, а первый запрос к непрогретому приложению бывает долгим
+        "user-service.read-replicas.read-your-writes-window=30s"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReadReplicaRoutingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserStatistics userStatistics;
+
+    private JdbcTemplate primary;
+    private List<JdbcTemplate> replicas;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(routingDataSource.getPrimary());
+        replicas = new ArrayList<>();
+        // Схему основной БД (её создаёт Hibernate) переносим на реплики
+        List<String> schema = primary.queryForList("SCRIPT NODATA", String.class).stream()
+                .filter(statement -> !statement.startsWith("--"))
+                .toList();
+        for (HikariDataSource replica : routingDataSource.getReplicas()) {
+            JdbcTemplate jdbc = new JdbcTemplate(replica);
+            jdbc.execute("DROP ALL OBJECTS");
+            schema.forEach(jdbc::execute);
+            replicas.add(jdbc);
+        }
+        userRepository.deleteAllInBatch();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReplicaRoutingDataSource.setPrimaryOnly(false);
+    }
+
+    @Test
+    void readOnlyTransactions_ShouldReadFromReplicaUnlessClientJustWrote() throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Primary Only\",\"email\":\"primary@example.com\",\"age\":30}"))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Cookie readPrimary = created.getResponse().getCookie(ReadYourWritesFilter.COOKIE_NAME);
+        assertNotNull(readPrimary);
+
+        // Запись — в основной БД, реплики её ещё не получили
+        assertEquals(1, primary.queryForObject("SELECT COUNT(*) FROM users", Integer.class));
+
+        // Другой клиент читает с реплики
+        mockMvc.perform(get("/api/users"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(0));
+
+        // Автор записи в пределах окна читает из основной БД
+        mockMvc.perform(get("/api/users").cookie(readPrimary))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].email").value("primary@example.com"));
+
+        // Выборка по id — тоже: загрузка идёт в читающей транзакции
+        String id = Long.toString(primary.queryForObject("SELECT id FROM users", Long.class));
+        mockMvc.perform(get("/api/users/{id}", id))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/users/{id}", id).cookie(readPrimary))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("primary@example.com"));
+
+        // POST /lookup только читает: идёт на реплику и не ставит cookie
+        mockMvc.perform(post("/api/users/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[" + id + "]}"))
+                .andExpect(status().isOk())
+                .andExpect(cookie().doesNotExist(ReadYourWritesFilter.COOKIE_NAME))
+                .andExpect(jsonPath("$.missing[0]").value(Long.parseLong(id)));
+
+        // Сверка статистики читает основную БД
+        userStatistics.reconcile();
+        assertEquals(1, userStatistics.snapshot(1).getTotal());
+
+        // После окна — снова реплика
+        Cookie expired = new Cookie(ReadYourWritesFilter.COOKIE_NAME, Long.toString(System.currentTimeMillis() - 1));
+        mockMvc.perform(get("/api/users").cookie(expired))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(0));
+
+        replicate();
+        for (int i = 0; i < replicas.size(); i++) {
+            mockMvc.perform(get("/api/users"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content.length()").value(1));
+        }
+    }
+
+    @Test
+    void replicaConnections_ShouldAlternateBetweenReplicasAndHonorPrimaryOnly() throws SQLException {
+        Set<String> urls = new HashSet<>();
+        String previous = null;
+        for (int i = 0; i < 4; i++) {
+            String url = connectionUrl();
+            assertNotEquals(previous, url);
+            urls.add(url);
+            previous = url;
+        }
+        assertEquals(Set.of("jdbc:h2:mem:replica-1", "jdbc:h2:mem:replica-2"), urls);
+
+        ReplicaRoutingDataSource.setPrimaryOnly(true);
+        assertEquals("jdbc:h2:mem:primary", connectionUrl());
+        ReplicaRoutingDataSource.setPrimaryOnly(false);
+
+        try (Connection connection = routingDataSource.getConnection("sa", "")) {
+            assertEquals("jdbc:h2:mem:primary", connection.getMetaData().getURL());
+        }
+    }
+
+    private String connectionUrl() throws SQLException {
+        try (Connection connection = routingDataSource.getConnection()) {
+            return connection.getMetaData().getURL();
+        }
+    }
+
+    private void replicate() {
+        primary.query("SELECT id, name, email, age, created_at, version FROM users", row -> {
+            for (JdbcTemplate replica : replicas) {
+                replica.update("INSERT INTO users (id, name, email, age, created_at, version) VALUES (?, ?, ?, ?, ?, ?)",
+                        row.getLong(1), row.getString(2), row.getString(3), row.getInt(4),
+                        row.getTimestamp(5), row.getLong(6));
+            }
+        });
+    }
+}
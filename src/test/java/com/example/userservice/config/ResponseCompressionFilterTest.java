@@ -0,0 +1,147 @@
+package com.example.userservice.config;
+
+import com.github.luben.zstd.ZstdInputStream;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ResponseCompressionFilterTest {
+
+    private final ResponseCompressionFilter filter = new ResponseCompressionFilter(DataSize.ofBytes(1024));
+
+    @Test
+    void negotiateEncoding_ShouldHonourQualityValuesAndPreferZstd() {
+        assertEquals("zstd", ResponseCompressionFilter.negotiateEncoding("gzip, deflate, br, zstd"));
+        assertEquals("gzip", ResponseCompressionFilter.negotiateEncoding("gzip;q=1.0, zstd;q=0.5"));
+        assertEquals("gzip", ResponseCompressionFilter.negotiateEncoding("gzip, zstd;q=0"));
+        assertEquals("zstd", ResponseCompressionFilter.negotiateEncoding("*"));
+        assertEquals("gzip", ResponseCompressionFilter.negotiateEncoding("zstd;q=0, *"));
+        assertNull(ResponseCompressionFilter.negotiateEncoding("identity"));
+        assertNull(ResponseCompressionFilter.negotiateEncoding(null));
+    }
+
+    @Test
+    void smallResponse_ShouldBeSentUncompressedWithContentLength() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/1");
+        request.addHeader("Accept-Encoding", "gzip, zstd");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request, response, writing("application/json", "{\"id\":1}"));
+
+        // Then
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals(8, response.getContentLength());
+        assertEquals("{\"id\":1}", response.getContentAsString());
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+    }
+
+    @Test
+    void largeResponse_ShouldBeCompressedWithNegotiatedEncoding() throws Exception {
+        String body = "{\"content\":[" + "{\"name\":\"User\",\"email\":\"user@example.com\"},".repeat(200) + "{}]}";
+
+        for (String encoding : new String[]{"gzip", "zstd"}) {
+            // Given
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+            request.addHeader("Accept-Encoding", encoding);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            // When
+            filter.doFilter(request, response, writing("application/json", body));
+
+            // Then
+            assertEquals(encoding, response.getHeader("Content-Encoding"));
+            byte[] compressed = response.getContentAsByteArray();
+            assertTrue(compressed.length < body.length() / 10, "compressed size " + compressed.length);
+            InputStream in = encoding.equals("gzip")
+                    ? new GZIPInputStream(new ByteArrayInputStream(compressed))
+                    : new ZstdInputStream(new ByteArrayInputStream(compressed));
+            assertEquals(body, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void largeResponseOfOtherType_ShouldNotBeCompressed() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/report");
+        request.addHeader("Accept-Encoding", "gzip");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        String body = "x".repeat(4096);
+
+        // When
+        filter.doFilter(request, response, writing("image/png", body));
+
+        // Then
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals(body, response.getContentAsString());
+    }
+
+    @Test
+    void nonBlockingWrites_ShouldBeDelegatedToContainerStream() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/export");
+        request.addHeader("Accept-Encoding", "gzip");
+        ListeningOutputStream containerStream = new ListeningOutputStream();
+        HttpServletResponse response = new HttpServletResponseWrapper(new MockHttpServletResponse()) {
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return containerStream;
+            }
+        };
+        WriteListener listener = mock(WriteListener.class);
+
+        // When
+        filter.doFilter(request, response, (req, res) -> {
+            ServletOutputStream out = res.getOutputStream();
+            out.setWriteListener(listener);
+            assertFalse(out.isReady());
+        });
+
+        // Then
+        assertSame(listener, containerStream.listener);
+    }
+
+    private static FilterChain writing(String contentType, String body) {
+        return (request, response) -> {
+            HttpServletResponse httpResponse = (HttpServletResponse) response;
+            httpResponse.setContentType(contentType);
+            httpResponse.setContentLength(body.length());
+            httpResponse.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+            // Конвертеры Spring сбрасывают поток после записи: до порога это не должно фиксировать ответ
+            httpResponse.getOutputStream().flush();
+        };
+    }
+
+    private static final class ListeningOutputStream extends ServletOutputStream {
+        WriteListener listener;
+
+        @Override
+        public boolean isReady() {
+            return false;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            listener = writeListener;
+        }
+
+        @Override
+        public void write(int b) {
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.userservice.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlStatementMetricsFilterTest {
+
+    private final SqlStatementCounter counter = new SqlStatementCounter();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SqlStatementMetricsFilter filter = new SqlStatementMetricsFilter(counter, registry);
+
+    @Test
+    void apiRequest_ShouldRecordStatementsByRoutePattern() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/7");
+        FilterChain chain = (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/users/{id}");
+            counter.statementExecuted();
+            counter.statementExecuted();
+        };
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Then
+        DistributionSummary summary = registry.get(SqlStatementMetricsFilter.METRIC_NAME)
+                .tag("method", "GET")
+                .tag("uri", "/api/users/{id}")
+                .summary();
+        assertEquals(1, summary.count());
+        assertEquals(2.0, summary.totalAmount());
+    }
+
+    @Test
+    void statementsOutsideRequest_ShouldNotBeCounted() throws Exception {
+        counter.statementExecuted();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/users"), new MockHttpServletResponse(),
+                (req, res) -> {});
+
+        assertEquals(0.0, registry.get(SqlStatementMetricsFilter.METRIC_NAME).summary().totalAmount());
+    }
+
+    @Test
+    void nonApiRequest_ShouldNotRecordMetric() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), new MockHttpServletResponse(),
+                (req, res) -> counter.statementExecuted());
+
+        assertNull(registry.find(SqlStatementMetricsFilter.METRIC_NAME).summary());
+    }
+}
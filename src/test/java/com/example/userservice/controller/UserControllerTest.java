@@ -1,28 +1,61 @@
 package com.example.userservice.controller;
 
+import com.example.userservice.dto.UserBatchOperation;
+import com.example.userservice.dto.UserBatchRequest;
+import com.example.userservice.dto.UserBatchResult;
+import com.example.userservice.dto.UserBulkDeleteResponse;
+import com.example.userservice.dto.UserChangePageResponse;
+import com.example.userservice.dto.UserChangeResponse;
+import com.example.userservice.dto.UserFilter;
+import com.example.userservice.dto.UserMultiGetResponse;
+import com.example.userservice.dto.UserPageResponse;
+import com.example.userservice.dto.UserPatchRequest;
 import com.example.userservice.dto.UserRequest;
 import com.example.userservice.dto.UserResponse;
+import com.example.userservice.dto.UserStatsResponse;
+import com.example.userservice.entity.UserChange;
+import com.example.userservice.exception.ChangesExpiredException;
+import com.example.userservice.exception.EmailAlreadyExistsException;
+import com.example.userservice.exception.UserNotFoundException;
+import com.example.userservice.exception.UserVersionMismatchException;
+import com.example.userservice.repository.UserRowHandler;
+import com.example.userservice.service.UserChangeFeed;
 import com.example.userservice.service.UserService;
+import com.example.userservice.service.UserStatistics;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -35,6 +68,15 @@ class UserControllerTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private UserStatistics userStatistics;
+
+    @Mock
+    private UserChangeFeed changeFeed;
+
+    @Spy
+    private JsonMapper jsonMapper = JsonMapper.builder().build();
+
     @InjectMocks
     private UserController userController;
 
@@ -85,39 +127,178 @@ class UserControllerTest {
     }
 
     @Test
-    void createUser_WithDuplicateEmail_ShouldReturnBadRequest() throws Exception {
+    void createUser_WithTooLongName_ShouldReturnBadRequest() throws Exception {
+        // Given
+        UserRequest longName = new UserRequest("N".repeat(101), "john.doe@example.com", 30);
+
+        // When & Then
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(longName)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.name").value("Name must be at most 100 characters"));
+    }
+
+    @Test
+    void createUser_WithDuplicateEmail_ShouldReturnConflict() throws Exception {
         // Given
         UserRequest userRequest = new UserRequest("John Doe", "existing@example.com", 30);
 
         when(userService.createUser(any(UserRequest.class)))
-                .thenThrow(new RuntimeException("User with email existing@example.com already exists"));
+                .thenThrow(new EmailAlreadyExistsException("existing@example.com"));
 
         // When & Then
         mockMvc.perform(post("/api/users")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(userRequest)))
-                .andExpect(status().isBadRequest())
-                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(409))
                 .andExpect(jsonPath("$.message").value("User with email existing@example.com already exists"));
     }
 
     @Test
-    void getAllUsers_ShouldReturnListOfUsers() throws Exception {
+    void processBatch_ShouldReturnPerItemResults() throws Exception {
+        // Given
+        UserBatchRequest batchRequest = new UserBatchRequest(List.of(
+                UserBatchOperation.create(new UserRequest("John Doe", "john@example.com", 30)),
+                UserBatchOperation.delete(999L)
+        ));
+        UserResponse created = new UserResponse(1L, "John Doe", "john@example.com", 30, null);
+
+        when(userService.processBatch(any())).thenReturn(List.of(
+                new UserBatchResult(0, UserBatchOperation.Type.CREATE, 201, created, null),
+                new UserBatchResult(1, UserBatchOperation.Type.DELETE, 404, null, "User not found with id: 999")
+        ));
+
+        // When & Then
+        mockMvc.perform(post("/api/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batchRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].status").value(201))
+                .andExpect(jsonPath("$[0].user.id").value(1L))
+                .andExpect(jsonPath("$[1].type").value("DELETE"))
+                .andExpect(jsonPath("$[1].status").value(404))
+                .andExpect(jsonPath("$[1].error").value("User not found with id: 999"));
+    }
+
+    @Test
+    void processBatch_WithInvalidItem_ShouldReturnBadRequest() throws Exception {
+        // Given
+        UserBatchRequest batchRequest = new UserBatchRequest(List.of(
+                UserBatchOperation.create(new UserRequest("", "invalid-email", 30))
+        ));
+
+        // When & Then
+        mockMvc.perform(post("/api/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batchRequest)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors['operations[0].user.email']").exists());
+    }
+
+    @Test
+    void getUsers_ShouldReturnFirstPageWithNextCursor() throws Exception {
         // Given
         UserResponse user1 = new UserResponse(1L, "John Doe", "john@example.com", 30, LocalDateTime.now());
         UserResponse user2 = new UserResponse(2L, "Jane Smith", "jane@example.com", 25, LocalDateTime.now());
         List<UserResponse> users = Arrays.asList(user1, user2);
 
-        when(userService.getAllUsers()).thenReturn(users);
+        when(userService.getUsers(isNull(), eq(20), any(UserFilter.class))).thenReturn(new UserPageResponse(users, 2L));
 
         // When & Then
         mockMvc.perform(get("/api/users"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(2))
-                .andExpect(jsonPath("$[0].id").value(1L))
-                .andExpect(jsonPath("$[0].name").value("John Doe"))
-                .andExpect(jsonPath("$[1].id").value(2L))
-                .andExpect(jsonPath("$[1].name").value("Jane Smith"));
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].id").value(1L))
+                .andExpect(jsonPath("$.content[0].name").value("John Doe"))
+                .andExpect(jsonPath("$.content[1].id").value(2L))
+                .andExpect(jsonPath("$.content[1].name").value("Jane Smith"))
+                .andExpect(jsonPath("$.next").value(2L));
+    }
+
+    @Test
+    void getUsers_WithCursor_ShouldPassAfterAndLimit() throws Exception {
+        // Given
+        UserResponse user = new UserResponse(3L, "Bob Brown", "bob@example.com", 40, LocalDateTime.now());
+
+        when(userService.getUsers(eq(2L), eq(1), any(UserFilter.class))).thenReturn(new UserPageResponse(List.of(user), null));
+
+        // When & Then
+        mockMvc.perform(get("/api/users").param("after", "2").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].id").value(3L))
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    void getUsers_WithFilters_ShouldPassThemToService() throws Exception {
+        // Given
+        when(userService.getUsers(isNull(), eq(20), any(UserFilter.class))).thenReturn(new UserPageResponse(List.of(), null));
+
+        // When
+        mockMvc.perform(get("/api/users")
+                        .param("minAge", "18")
+                        .param("maxAge", "25")
+                        .param("createdAfter", "2026-01-01T00:00:00")
+                        .param("createdBefore", "2026-01-08T00:00:00"))
+                .andExpect(status().isOk());
+
+        // Then
+        ArgumentCaptor<UserFilter> filter = ArgumentCaptor.forClass(UserFilter.class);
+        verify(userService).getUsers(isNull(), eq(20), filter.capture());
+        assertEquals(18, filter.getValue().getMinAge());
+        assertEquals(25, filter.getValue().getMaxAge());
+        assertEquals(LocalDateTime.of(2026, 1, 1, 0, 0), filter.getValue().getCreatedAfter());
+        assertEquals(LocalDateTime.of(2026, 1, 8, 0, 0), filter.getValue().getCreatedBefore());
+    }
+
+    @Test
+    void exportUsers_ShouldStreamNdjson() throws Exception {
+        // Given
+        doAnswer(invocation -> {
+            UserRowHandler handler = invocation.getArgument(0);
+            handler.handle(1L, "John Doe", "john@example.com", 30, LocalDateTime.of(2026, 1, 1, 10, 15));
+            handler.handle(2L, "Jane Smith", "jane@example.com", 25, null);
+            return null;
+        }).when(userService).exportUsers(any());
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/users/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("{\"age\":30,\"createdAt\":\"2026-01-01T10:15:00\",\"email\":\"john@example.com\",\"id\":1,\"name\":\"John Doe\"}",
+                lines[0]);
+        assertTrue(lines[1].contains("\"email\":\"jane@example.com\""));
+    }
+
+    @Test
+    void getStats_ShouldReturnInMemorySnapshot() throws Exception {
+        // Given
+        Map<String, Long> ages = new LinkedHashMap<>();
+        ages.put("20-29", 2L);
+        ages.put("30-39", 1L);
+        LocalDate today = LocalDate.of(2025, 1, 15);
+        when(userStatistics.snapshot(7)).thenReturn(new UserStatsResponse(3, ages, Map.of(today, 3L),
+                LocalDateTime.of(2025, 1, 15, 12, 0)));
+
+        // When & Then
+        mockMvc.perform(get("/api/users/stats").param("days", "7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.ageHistogram['20-29']").value(2))
+                .andExpect(jsonPath("$.signupsPerDay['2025-01-15']").value(3));
+        verifyNoInteractions(userService);
     }
 
     @Test
@@ -140,22 +321,55 @@ class UserControllerTest {
     void getUserById_WithNonExistingId_ShouldReturnNotFound() throws Exception {
         // Given
         when(userService.getUserById(999L))
-                .thenThrow(new RuntimeException("User not found with id: 999"));
+                .thenThrow(new UserNotFoundException(999L));
 
         // When & Then
         mockMvc.perform(get("/api/users/999"))
-                .andExpect(status().isBadRequest())
-                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.status").value(404))
                 .andExpect(jsonPath("$.message").value("User not found with id: 999"));
     }
 
+    @Test
+    void getUserById_WithMatchingIfNoneMatch_ShouldReturnNotModified() throws Exception {
+        // Given
+        UserResponse userResponse = new UserResponse(1L, "John Doe", "john@example.com", 30, LocalDateTime.now(), 3L);
+        when(userService.getUserById(1L)).thenReturn(userResponse);
+
+        // When & Then
+        mockMvc.perform(get("/api/users/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""));
+
+        mockMvc.perform(get("/api/users/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void updateUser_WithStaleIfMatch_ShouldReturnPreconditionFailed() throws Exception {
+        // Given
+        UserRequest userRequest = new UserRequest("John Updated", "john@example.com", 31);
+        when(userService.updateUser(eq(1L), any(UserRequest.class), argThat(condition -> condition.matches(2L))))
+                .thenThrow(new UserVersionMismatchException(1L));
+
+        // When & Then
+        mockMvc.perform(put("/api/users/1")
+                        .header("If-Match", "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userRequest)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status").value(412));
+    }
+
     @Test
     void updateUser_WithValidData_ShouldReturnUpdatedUser() throws Exception {
         // Given
         UserRequest userRequest = new UserRequest("John Updated", "john.updated@example.com", 31);
         UserResponse userResponse = new UserResponse(1L, "John Updated", "john.updated@example.com", 31, LocalDateTime.now());
 
-        when(userService.updateUser(eq(1L), any(UserRequest.class))).thenReturn(userResponse);
+        when(userService.updateUser(eq(1L), any(UserRequest.class), isNull())).thenReturn(userResponse);
 
         // When & Then
         mockMvc.perform(put("/api/users/1")
@@ -173,21 +387,49 @@ class UserControllerTest {
         // Given
         UserRequest userRequest = new UserRequest("John Updated", "john@example.com", 31);
 
-        when(userService.updateUser(eq(999L), any(UserRequest.class)))
-                .thenThrow(new RuntimeException("User not found with id: 999"));
+        when(userService.updateUser(eq(999L), any(UserRequest.class), isNull()))
+                .thenThrow(new UserNotFoundException(999L));
 
         // When & Then
         mockMvc.perform(put("/api/users/999")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(userRequest)))
-                .andExpect(status().isBadRequest())
+                .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message").value("User not found with id: 999"));
     }
 
+    @Test
+    void patchUser_ShouldReturnPatchedUser() throws Exception {
+        // Given
+        UserResponse userResponse = new UserResponse(1L, "John Doe", "john@example.com", 31, LocalDateTime.now());
+
+        when(userService.patchUser(eq(1L), any(UserPatchRequest.class), isNull())).thenReturn(userResponse);
+
+        // When & Then
+        mockMvc.perform(patch("/api/users/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"age\": 31}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1L))
+                .andExpect(jsonPath("$.age").value(31));
+    }
+
+    @Test
+    void patchUser_WithInvalidFields_ShouldReturnBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(patch("/api/users/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"  \", \"email\": \"invalid-email\", \"age\": -1}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.name").exists())
+                .andExpect(jsonPath("$.errors.email").exists())
+                .andExpect(jsonPath("$.errors.age").exists());
+    }
+
     @Test
     void deleteUser_WithValidId_ShouldReturnNoContent() throws Exception {
         // Given
-        doNothing().when(userService).deleteUser(1L);
+        doNothing().when(userService).deleteUser(1L, null);
 
         // When & Then
         mockMvc.perform(delete("/api/users/1"))
@@ -195,14 +437,87 @@ class UserControllerTest {
     }
 
     @Test
-    void deleteUser_WithNonExistingId_ShouldReturnBadRequest() throws Exception {
+    void deleteUser_WithNonExistingId_ShouldReturnNotFound() throws Exception {
         // Given
-        doThrow(new RuntimeException("User not found with id: 999"))
-                .when(userService).deleteUser(999L);
+        doThrow(new UserNotFoundException(999L))
+                .when(userService).deleteUser(999L, null);
 
         // When & Then
         mockMvc.perform(delete("/api/users/999"))
-                .andExpect(status().isBadRequest())
+                .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message").value("User not found with id: 999"));
     }
+
+    @Test
+    void getUsersByIds_ShouldReturnFoundAndMissing() throws Exception {
+        // Given
+        UserResponse user = new UserResponse(2L, "John Doe", "john@example.com", 30, LocalDateTime.now());
+        when(userService.getUsersByIds(List.of(2L, 5L))).thenReturn(new UserMultiGetResponse(List.of(user), List.of(5L)));
+
+        // When & Then
+        mockMvc.perform(get("/api/users").param("ids", "2,5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].id").value(2))
+                .andExpect(jsonPath("$.missing[0]").value(5));
+    }
+
+    @Test
+    void lookupUsers_WithIdsInBody_ShouldReturnFoundAndMissing() throws Exception {
+        // Given
+        when(userService.getUsersByIds(List.of(7L))).thenReturn(new UserMultiGetResponse(List.of(), List.of(7L)));
+
+        // When & Then
+        mockMvc.perform(post("/api/users/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [7]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users").isEmpty())
+                .andExpect(jsonPath("$.missing[0]").value(7));
+    }
+
+    @Test
+    void lookupUsers_WithEmptyIds_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/api/users/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": []}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.ids").exists());
+    }
+
+    @Test
+    void deleteUsers_ShouldReturnDeletedCount() throws Exception {
+        // Given
+        when(userService.deleteUsers(List.of(1L, 2L, 3L))).thenReturn(new UserBulkDeleteResponse(3, 2));
+
+        // When & Then
+        mockMvc.perform(delete("/api/users").param("ids", "1,2,3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested").value(3))
+                .andExpect(jsonPath("$.deleted").value(2));
+    }
+
+    @Test
+    void getChanges_ShouldReturnPageWithNextCursor() throws Exception {
+        // Given
+        UserChangeResponse change = new UserChangeResponse(42L, UserChange.Type.CREATED, 1L, "John Doe",
+                "john@example.com", 30, 0L, LocalDateTime.of(2024, 1, 1, 12, 0));
+        when(changeFeed.getChanges(41L, 100)).thenReturn(new UserChangePageResponse(List.of(change), 42L));
+
+        // When & Then
+        mockMvc.perform(get("/api/users/changes").param("since", "41"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes[0].position").value(42))
+                .andExpect(jsonPath("$.changes[0].type").value("CREATED"))
+                .andExpect(jsonPath("$.next").value(42));
+    }
+
+    @Test
+    void getChanges_WithPrunedCursor_ShouldReturnGone() throws Exception {
+        // Given
+        when(changeFeed.getChanges(5L, 100)).thenThrow(new ChangesExpiredException(5L));
+
+        // When & Then
+        mockMvc.perform(get("/api/users/changes").param("since", "5"))
+                .andExpect(status().isGone());
+    }
 }
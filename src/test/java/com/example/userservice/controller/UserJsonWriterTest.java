@@ -0,0 +1,58 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.dto.UserResponse;
+import org.junit.jupiter.api.Test;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.module.SimpleModule;
+
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UserJsonWriterTest {
+
+    private final JsonMapper defaultMapper = JsonMapper.builder().build();
+    private final JsonMapper customMapper = JsonMapper.builder()
+            .addModule(new SimpleModule().addSerializer(UserResponse.class, new UserResponseJsonSerializer()))
+            .build();
+
+    @Test
+    void write_ShouldProduceSameJsonAsDefaultSerialization() {
+        List<LocalDateTime> timestamps = List.of(
+                LocalDateTime.of(2026, 1, 1, 10, 15),
+                LocalDateTime.of(2026, 12, 31, 23, 59, 59),
+                LocalDateTime.of(2026, 3, 4, 5, 6, 7, 120_000_000),
+                LocalDateTime.of(2026, 3, 4, 5, 6, 7, 123_456_789),
+                LocalDateTime.of(2026, 3, 4, 5, 6, 7, 100),
+                LocalDateTime.of(999, 3, 4, 5, 6, 7),
+                LocalDateTime.of(12026, 3, 4, 5, 6, 7));
+
+        for (LocalDateTime createdAt : timestamps) {
+            UserResponse user = new UserResponse(42L, "Jane \"J\" Doe", "jane@example.com", 30, createdAt, 7L);
+            assertEquals(defaultMapper.writeValueAsString(user), customMapper.writeValueAsString(user));
+        }
+    }
+
+    @Test
+    void write_WithNullFields_ShouldWriteNullsLikeDefaultSerialization() {
+        UserResponse user = new UserResponse(null, null, null, null, null);
+
+        assertEquals(defaultMapper.writeValueAsString(user), customMapper.writeValueAsString(user));
+    }
+
+    @Test
+    void writeRow_ShouldMatchSerializedResponseForSameValues() {
+        LocalDateTime createdAt = LocalDateTime.of(2026, 10, 16, 23, 0, 0, 634_989_000);
+        StringWriter out = new StringWriter();
+
+        try (JsonGenerator generator = defaultMapper.createGenerator(out)) {
+            new UserJsonWriter().write(generator, 3L, "Ivan", "ivan@example.com", 30, createdAt);
+        }
+
+        assertEquals(defaultMapper.writeValueAsString(new UserResponse(3L, "Ivan", "ivan@example.com", 30, createdAt)),
+                out.toString());
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.userservice.integration;
+
+import com.example.userservice.dto.UserFilter;
+import com.example.userservice.dto.UserResponse;
+import com.example.userservice.repository.UserRepository;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Планы запросов фильтра списка: EXPLAIN выполняется для того SQL, который Hibernate построил из
+ * UserRepositoryImpl.findResponsesAfter, на заполненной таблице со свежей статистикой (ANALYZE).
+ */
+// Отдельная база: посев и ANALYZE не затрагивают другие тестовые контексты
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:plans;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class UserFilterQueryPlanTest {
+
+    private static final int USERS = 5_000;
+    private static final int PAGE = 21;
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 6, 1, 0, 0);
+
+    // Только операторы потока теста: планировщики приложения выполняют свои запросы параллельно
+    private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+    @TestConfiguration
+    static class CaptureSql {
+        @Bean
+        HibernatePropertiesCustomizer captureSqlCustomizer() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                STATEMENTS.get().add(sql);
+                return sql;
+            });
+        }
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    static void seed(@Autowired JdbcTemplate jdbcTemplate) {
+        // Возраст 18..80 распределён равномерно, даты регистрации — за последний год по возрастанию id
+        List<Object[]> rows = new ArrayList<>(USERS);
+        for (int i = 1; i <= USERS; i++) {
+            rows.add(new Object[] {i, "User " + i, "plan-" + i + "@example.com", 18 + i % 63,
+                    Timestamp.valueOf(NOW.minusMinutes((long) (USERS - i) * 365 * 24 * 60 / USERS))});
+        }
+        jdbcTemplate.batchUpdate(
+                "insert into users (id, name, email, age, created_at, version) values (?, ?, ?, ?, ?, 0)", rows);
+        jdbcTemplate.execute("analyze");
+    }
+
+    @AfterAll
+    static void cleanUp(@Autowired JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("delete from users");
+    }
+
+    @Test
+    void ageFilter_ShouldUseAgeIndexThenPrimaryKeyFromCursor() {
+        UserFilter filter = new UserFilter(18, 20, null, null);
+
+        long after = lastId(filter);
+        String firstPage = plan(0, filter, 18, 20);
+        String nextPage = plan(after, filter, after, 18, 20);
+
+        assertTrue(firstPage.contains("IDX_USER_AGE"), firstPage);
+        assertRangeFromCursor(nextPage);
+    }
+
+    @Test
+    void createdAtFilter_ShouldUseCreatedAtIndexThenPrimaryKeyFromCursor() {
+        // Неделя полгода назад — около 2% строк
+        LocalDateTime from = NOW.minusDays(180);
+        LocalDateTime to = from.plusDays(7);
+        UserFilter filter = new UserFilter(null, null, from, to);
+
+        long after = lastId(filter);
+        String firstPage = plan(0, filter, from, to);
+        String nextPage = plan(after, filter, after, from, to);
+
+        assertTrue(firstPage.contains("IDX_USER_CREATED_AT"), firstPage);
+        assertRangeFromCursor(nextPage);
+    }
+
+    // Со второй страницы первичный ключ обходится с курсора в порядке id, без полного обхода и сортировки
+    private static void assertRangeFromCursor(String plan) {
+        assertTrue(plan.contains("PRIMARY_KEY") && plan.contains("ID > ?1"), plan);
+        assertTrue(plan.contains("INDEX SORTED"), plan);
+    }
+
+    // Курсор следующей страницы, как его выдаёт API: id последней строки текущей
+    private long lastId(UserFilter filter) {
+        List<UserResponse> page = transactionTemplate.execute(status ->
+                userRepository.findResponsesAfter(0, filter, PAGE));
+        assertTrue(page != null && page.size() == PAGE);
+        return page.get(page.size() - 1).getId();
+    }
+
+    /**
+     * Выполняет findResponsesAfter, берёт построенный Hibernate SQL и возвращает его план.
+     * {@code args} — значения параметров в порядке условий запроса (after, возраст, время), лимит добавляется сам.
+     */
+    private String plan(long after, UserFilter filter, Object... args) {
+        List<String> statements = STATEMENTS.get();
+        statements.clear();
+        List<UserResponse> page = transactionTemplate.execute(status ->
+                userRepository.findResponsesAfter(after, filter, PAGE));
+        assertTrue(page != null && !page.isEmpty());
+
+        assertEquals(1, statements.size(), statements.toString());
+        String sql = statements.get(0);
+        Object[] params = new Object[args.length + 1];
+        for (int i = 0; i < args.length; i++) {
+            params[i] = args[i] instanceof LocalDateTime time ? Timestamp.valueOf(time) : args[i];
+        }
+        params[args.length] = PAGE;
+        return jdbcTemplate.queryForObject("explain " + sql, String.class, params).toUpperCase(Locale.ROOT);
+    }
+}
@@ -1,18 +1,56 @@
 package com.example.userservice.integration;
 
+import com.example.userservice.config.CacheConfig;
+import com.example.userservice.config.SqlStatementMetricsFilter;
 import com.example.userservice.entity.User;
+import com.example.userservice.dto.UserBatchOperation;
+import com.example.userservice.dto.UserBatchResult;
+import com.example.userservice.dto.UserPageResponse;
+import com.example.userservice.dto.UserPatchRequest;
+import com.example.userservice.dto.UserRequest;
+import com.example.userservice.exception.EmailAlreadyExistsException;
+import com.example.userservice.exception.UserNotFoundException;
 import com.example.userservice.repository.UserRepository;
+import com.example.userservice.dto.UserResponse;
+import com.example.userservice.service.UserService;
+import com.example.userservice.service.UserStatistics;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.WireFormat;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -28,6 +66,21 @@ class UserIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserStatistics userStatistics;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @BeforeEach
     void setUp() {
         userRepository.deleteAll();
@@ -87,7 +140,546 @@ class UserIntegrationTest {
 
         // Verify User is deleted
         mockMvc.perform(get("/api/users/{id}", userId))
-                .andExpect(status().isBadRequest());
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getUserById_ShouldBeServedFromCacheUntilUpdate() throws Exception {
+        User user = userRepository.save(new User("Cached User", "cached@example.com", 33));
+        CaffeineCache cache = (CaffeineCache) cacheManager.getCache(CacheConfig.USERS_CACHE);
+        long hitsBefore = cache.getNativeCache().stats().hitCount();
+
+        mockMvc.perform(get("/api/users/{id}", user.getId()))
+                .andExpect(jsonPath("$.name").value("Cached User"));
+
+        // Изменение в обход сервиса не видно, пока запись лежит в кеше
+        user.setName("Changed Directly");
+        userRepository.saveAndFlush(user);
+        mockMvc.perform(get("/api/users/{id}", user.getId()))
+                .andExpect(jsonPath("$.name").value("Cached User"));
+        assertEquals(hitsBefore + 1, cache.getNativeCache().stats().hitCount());
+
+        // PUT вытесняет запись из кеша
+        mockMvc.perform(put("/api/users/{id}", user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                            {"name": "Updated Via Api", "email": "cached@example.com", "age": 34}
+                            """))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/users/{id}", user.getId()))
+                .andExpect(jsonPath("$.name").value("Updated Via Api"));
+
+        mockMvc.perform(get("/actuator/metrics/cache.gets").param("tag", "name:users"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[0].value").exists());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void cache_ShouldNotKeepRowsReadConcurrentlyBeforeCommit() throws Exception {
+        UserResponse updated = userService.createUser(new UserRequest("Before Update", "interleave1@example.com", 30));
+        UserResponse deleted = userService.createUser(new UserRequest("Before Delete", "interleave2@example.com", 40));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+
+        try {
+            // Чтение из другого потока между записью и коммитом видит прежние строки и кладёт их в кеш
+            transaction.executeWithoutResult(status -> {
+                userService.updateUser(updated.getId(), new UserRequest("After Update", "interleave1@example.com", 31), null);
+                userService.deleteUser(deleted.getId(), null);
+                assertEquals("Before Update", readInOtherThread(reader, updated.getId()).getName());
+                assertEquals("Before Delete", readInOtherThread(reader, deleted.getId()).getName());
+            });
+
+            // После коммита эти записи вытеснены
+            assertEquals("After Update", userService.getUserById(updated.getId()).getName());
+            assertThrows(UserNotFoundException.class, () -> userService.getUserById(deleted.getId()));
+
+            // Откат не оставляет в кеше незакоммиченную строку
+            transaction.executeWithoutResult(status -> {
+                userService.patchUser(updated.getId(), new UserPatchRequest("Rolled Back", null, null), null);
+                status.setRollbackOnly();
+            });
+            assertEquals("After Update", userService.getUserById(updated.getId()).getName());
+        } finally {
+            reader.shutdownNow();
+            userRepository.deleteAll();
+        }
+    }
+
+    private UserResponse readInOtherThread(ExecutorService reader, Long id) {
+        try {
+            return reader.submit(() -> userService.getUserById(id)).get();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    void getUsers_ShouldWalkAllPagesWithKeysetCursor() throws Exception {
+        User first = userRepository.save(new User("Page One", "page1@example.com", 21));
+        User second = userRepository.save(new User("Page Two", "page2@example.com", 22));
+        User third = userRepository.save(new User("Page Three", "page3@example.com", 23));
+
+        mockMvc.perform(get("/api/users").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].id").value(first.getId()))
+                .andExpect(jsonPath("$.content[1].id").value(second.getId()))
+                .andExpect(jsonPath("$.next").value(second.getId()));
+
+        mockMvc.perform(get("/api/users").param("after", second.getId().toString()).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].id").value(third.getId()))
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    void getUsers_ShouldNegotiateBinaryFormatsAndCompressLargePages() throws Exception {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            users.add(new User("Format User " + i, "format" + i + "@example.com", 20 + i));
+        }
+        userRepository.saveAll(users);
+        User first = users.get(0);
+
+        byte[] cbor = mockMvc.perform(get("/api/users").param("limit", "2").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        UserPageResponse cborPage = CBORMapper.builder().build().readValue(cbor, UserPageResponse.class);
+        assertEquals(first.getEmail(), cborPage.getContent().get(0).getEmail());
+
+        byte[] smile = mockMvc.perform(get("/api/users/{id}", first.getId()).accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(first.getName(), SmileMapper.builder().build().readValue(smile, UserResponse.class).getName());
+
+        // UserPage: repeated User content = 1 (id = 1, email = 3), next = 2
+        byte[] protobuf = mockMvc.perform(get("/api/users").param("limit", "2").accept("application/x-protobuf"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-protobuf"))
+                .andReturn().getResponse().getContentAsByteArray();
+        CodedInputStream page = CodedInputStream.newInstance(protobuf);
+        List<String> emails = new ArrayList<>();
+        long next = 0;
+        for (int tag = page.readTag(); tag != 0; tag = page.readTag()) {
+            if (WireFormat.getTagFieldNumber(tag) == 2) {
+                next = page.readInt64();
+                continue;
+            }
+            CodedInputStream user = CodedInputStream.newInstance(page.readByteArray());
+            for (int userTag = user.readTag(); userTag != 0; userTag = user.readTag()) {
+                if (WireFormat.getTagFieldNumber(userTag) == 3) {
+                    emails.add(user.readString());
+                } else {
+                    user.skipField(userTag);
+                }
+            }
+        }
+        assertEquals(List.of(first.getEmail(), users.get(1).getEmail()), emails);
+        assertEquals(users.get(1).getId(), next);
+
+        mockMvc.perform(get("/api/users").param("limit", "100").header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", "Accept-Encoding"));
+        mockMvc.perform(get("/api/users/{id}", first.getId()).header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(jsonPath("$.email").value(first.getEmail()));
+    }
+
+    @Test
+    void getUsers_WithAgeAndCreationFilters_ShouldPageThroughMatchingUsersOnly() throws Exception {
+        userRepository.save(new User("Young", "young@example.com", 17));
+        User first = userRepository.save(new User("First Match", "match1@example.com", 18));
+        userRepository.save(new User("Old", "old@example.com", 40));
+        User second = userRepository.save(new User("Second Match", "match2@example.com", 25));
+        userRepository.flush();
+        String weekAgo = LocalDateTime.now().minusDays(7).toString();
+
+        mockMvc.perform(get("/api/users")
+                        .param("minAge", "18").param("maxAge", "25")
+                        .param("createdAfter", weekAgo)
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].id").value(first.getId()))
+                .andExpect(jsonPath("$.next").value(first.getId()));
+
+        mockMvc.perform(get("/api/users")
+                        .param("minAge", "18").param("maxAge", "25")
+                        .param("createdAfter", weekAgo)
+                        .param("after", first.getId().toString())
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(second.getId()))
+                .andExpect(jsonPath("$.next").doesNotExist());
+
+        mockMvc.perform(get("/api/users").param("createdBefore", weekAgo))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").isEmpty());
+    }
+
+    @Test
+    void processBatch_ShouldCreateUpdateAndDeleteInOneRequest() throws Exception {
+        User toUpdate = userRepository.save(new User("Batch Old", "batch-old@example.com", 40));
+        User toDelete = userRepository.save(new User("Batch Gone", "batch-gone@example.com", 41));
+
+        String batchJson = """
+            {
+                "operations": [
+                    {"type": "CREATE", "user": {"name": "Batch New", "email": "batch-new@example.com", "age": 20}},
+                    {"type": "CREATE", "user": {"name": "Batch Dup", "email": "batch-old@example.com", "age": 21}},
+                    {"type": "UPDATE", "id": %d, "user": {"name": "Batch Updated", "email": "batch-old@example.com", "age": 42}},
+                    {"type": "DELETE", "id": %d}
+                ]
+            }
+            """.formatted(toUpdate.getId(), toDelete.getId());
+
+        mockMvc.perform(post("/api/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batchJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(201))
+                .andExpect(jsonPath("$[0].user.id").exists())
+                .andExpect(jsonPath("$[1].status").value(409))
+                .andExpect(jsonPath("$[2].status").value(200))
+                .andExpect(jsonPath("$[2].user.name").value("Batch Updated"))
+                .andExpect(jsonPath("$[3].status").value(204));
+
+        assertTrue(userRepository.findByEmail("batch-new@example.com").isPresent());
+        assertEquals("Batch Updated", userRepository.findById(toUpdate.getId()).orElseThrow().getName());
+        assertTrue(userRepository.findById(toDelete.getId()).isEmpty());
+    }
+
+    @Test
+    void processBatch_ShouldReturnVersionWrittenByUpdate() {
+        User user = userRepository.saveAndFlush(new User("Batch Versioned", "batch-versioned@example.com", 40));
+        long before = user.getVersion();
+
+        List<UserBatchResult> results = userService.processBatch(List.of(new UserBatchOperation(
+                UserBatchOperation.Type.UPDATE, user.getId(),
+                new UserRequest("Batch Versioned", "batch-versioned@example.com", 41))));
+
+        // Ответ строится после flush, поэтому несёт версию после UPDATE, как ETag одиночного PUT
+        assertEquals(before + 1, results.get(0).getUser().getVersion());
+        assertEquals(userRepository.findById(user.getId()).orElseThrow().getVersion(),
+                results.get(0).getUser().getVersion());
+    }
+
+    @Test
+    void patchUser_ShouldChangeOnlyProvidedFields() throws Exception {
+        User user = userRepository.save(new User("Patch Me", "patch@example.com", 50));
+        userRepository.save(new User("Other", "other@example.com", 51));
+
+        mockMvc.perform(patch("/api/users/{id}", user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"age\": 55}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Patch Me"))
+                .andExpect(jsonPath("$.email").value("patch@example.com"))
+                .andExpect(jsonPath("$.age").value(55))
+                .andExpect(jsonPath("$.createdAt").exists());
+
+        mockMvc.perform(patch("/api/users/{id}", user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\": \"other@example.com\"}"))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(patch("/api/users/{id}", Long.MAX_VALUE)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"age\": 1}"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("User not found with id: " + Long.MAX_VALUE));
+    }
+
+    @Test
+    void conditionalRequests_ShouldUseVersionAsETag() throws Exception {
+        User user = userRepository.saveAndFlush(new User("Versioned", "versioned@example.com", 40));
+        String initialTag = "\"" + user.getVersion() + "\"";
+
+        mockMvc.perform(get("/api/users/{id}", user.getId()).header("If-None-Match", initialTag))
+                .andExpect(status().isNotModified());
+
+        MvcResult patched = mockMvc.perform(patch("/api/users/{id}", user.getId())
+                        .header("If-Match", initialTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"age\": 41}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String newTag = patched.getResponse().getHeader("ETag");
+        assertTrue(newTag != null && !newTag.equals(initialTag));
+
+        mockMvc.perform(get("/api/users/{id}", user.getId()).header("If-None-Match", initialTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", newTag))
+                .andExpect(jsonPath("$.age").value(41));
+
+        mockMvc.perform(put("/api/users/{id}", user.getId())
+                        .header("If-Match", initialTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Stale\", \"email\": \"versioned@example.com\", \"age\": 1}"))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(delete("/api/users/{id}", user.getId()).header("If-Match", initialTag))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(delete("/api/users/{id}", user.getId()).header("If-Match", newTag))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void conditionalRequests_ShouldMatchAnyTagOfListAndStarOnlyForExistingUser() throws Exception {
+        User user = userRepository.saveAndFlush(new User("Listed", "listed@example.com", 40));
+        String currentTag = "\"" + user.getVersion() + "\"";
+
+        // Совпадает любой тег списка; слабые и нечисловые теги пропускаются
+        MvcResult patched = mockMvc.perform(patch("/api/users/{id}", user.getId())
+                        .header("If-Match", "W/" + currentTag + ", \"abc\", \"77\", " + currentTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"age\": 41}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String newTag = patched.getResponse().getHeader("ETag");
+
+        mockMvc.perform(put("/api/users/{id}", user.getId())
+                        .header("If-Match", currentTag + ", \"77\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Stale\", \"email\": \"listed@example.com\", \"age\": 1}"))
+                .andExpect(status().isPreconditionFailed());
+
+        // Строки заголовка If-Match объединяются в один список
+        mockMvc.perform(put("/api/users/{id}", user.getId())
+                        .header("If-Match", currentTag, newTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Listed\", \"email\": \"listed@example.com\", \"age\": 42}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(delete("/api/users/{id}", user.getId()).header("If-Match", "*"))
+                .andExpect(status().isNoContent());
+
+        // * не выполняется для отсутствующего пользователя
+        mockMvc.perform(delete("/api/users/{id}", user.getId()).header("If-Match", "*"))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(patch("/api/users/{id}", user.getId())
+                        .header("If-Match", "*")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"age\": 43}"))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(put("/api/users/{id}", user.getId())
+                        .header("If-Match", "*")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Gone\", \"email\": \"listed@example.com\", \"age\": 44}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void getUsersByIds_ShouldReturnUsersInRequestedOrderAndListMissing() throws Exception {
+        User first = userRepository.save(new User("First", "first@example.com", 20));
+        User second = userRepository.save(new User("Second", "second@example.com", 21));
+
+        mockMvc.perform(get("/api/users").param("ids", second.getId() + "," + Long.MAX_VALUE + "," + first.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users.length()").value(2))
+                .andExpect(jsonPath("$.users[0].name").value("Second"))
+                .andExpect(jsonPath("$.users[1].name").value("First"))
+                .andExpect(jsonPath("$.missing[0]").value(Long.MAX_VALUE));
+    }
+
+    @Test
+    void deleteUsers_ShouldRemoveAllListedUsersInOneRequest() throws Exception {
+        User first = userRepository.save(new User("Purge One", "purge1@example.com", 30));
+        User second = userRepository.save(new User("Purge Two", "purge2@example.com", 31));
+        User kept = userRepository.save(new User("Kept", "kept@example.com", 32));
+        mockMvc.perform(get("/api/users/{id}", first.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/api/users/{id}", kept.getId())).andExpect(status().isOk());
+
+        mockMvc.perform(delete("/api/users")
+                        .param("ids", first.getId() + "," + second.getId() + "," + Long.MAX_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested").value(3))
+                .andExpect(jsonPath("$.deleted").value(2));
+
+        assertEquals(1, userRepository.count());
+        assertTrue(userRepository.existsById(kept.getId()));
+        // Вытесняются только удалённые id
+        Cache cache = cacheManager.getCache(CacheConfig.USERS_CACHE);
+        assertNull(cache.get(first.getId()));
+        assertNotNull(cache.get(kept.getId()));
+    }
+
+    @Test
+    void createUser_WithDuplicateEmail_ShouldReturnConflict() throws Exception {
+        userRepository.save(new User("First Owner", "owner@example.com", 30));
+
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                            {"name": "Second Owner", "email": "owner@example.com", "age": 31}
+                            """))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("User with email owner@example.com already exists"));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void createUser_ConcurrentSignupsWithSameEmail_ShouldCreateExactlyOneUser() throws Exception {
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                UserRequest request = new UserRequest("Racer " + i, "race@example.com", 20 + i);
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        userService.createUser(request);
+                        return true;
+                    } catch (EmailAlreadyExistsException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int created = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    created++;
+                }
+            }
+            assertEquals(1, created);
+            assertEquals(1, userRepository.count());
+        } finally {
+            executor.shutdownNow();
+            userRepository.deleteAll();
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void exportUsers_ShouldStreamEveryUserAsNdjsonLine() throws Exception {
+        // Выгрузка идёт в отдельном потоке и своей транзакции, поэтому данные должны быть закоммичены
+        userRepository.save(new User("Export One", "export1@example.com", 31));
+        userRepository.save(new User("Export Two", "export2@example.com", 32));
+
+        try {
+            MvcResult result = mockMvc.perform(get("/api/users/export"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            String body = mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                    .andReturn().getResponse().getContentAsString();
+
+            String[] lines = body.split("\n");
+            assertEquals(2, lines.length);
+            assertTrue(lines[0].contains("export1@example.com"));
+            assertTrue(lines[1].contains("export2@example.com"));
+        } finally {
+            userRepository.deleteAll();
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void sqlStatementMetric_ShouldCountJdbcOfPatchDeleteAndExport() throws Exception {
+        // Операторы считаются на уровне JDBC: и запросы Hibernate, и JDBC выгрузки в асинхронном потоке
+        UserResponse user = userService.createUser(new UserRequest("Counted", "counted@example.com", 30));
+        double patchBefore = sqlStatements("PATCH", "/api/users/{id}");
+        double deleteBefore = sqlStatements("DELETE", "/api/users/{id}");
+        double exportBefore = sqlStatements("GET", "/api/users/export");
+
+        try {
+            mockMvc.perform(patch("/api/users/{id}", user.getId())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"age\": 31}"))
+                    .andExpect(status().isOk());
+
+            MvcResult export = mockMvc.perform(get("/api/users/export"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(export)).andExpect(status().isOk());
+
+            mockMvc.perform(delete("/api/users/{id}", user.getId()))
+                    .andExpect(status().isNoContent());
+
+            assertTrue(sqlStatements("PATCH", "/api/users/{id}") > patchBefore);
+            assertTrue(sqlStatements("DELETE", "/api/users/{id}") > deleteBefore);
+            assertTrue(sqlStatements("GET", "/api/users/export") > exportBefore);
+            // Пул HikariCP за счётчиком по-прежнему виден метрикам
+            assertNotNull(meterRegistry.find("hikaricp.connections.acquire").timer());
+        } finally {
+            userRepository.deleteAll();
+        }
+    }
+
+    private double sqlStatements(String method, String uri) {
+        DistributionSummary summary = meterRegistry.find(SqlStatementMetricsFilter.METRIC_NAME)
+                .tag("method", method)
+                .tag("uri", uri)
+                .summary();
+        return summary != null ? summary.totalAmount() : 0;
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void getStats_ShouldReflectCommittedChangesWithoutRescanning() throws Exception {
+        // Статистика меняется после коммита, поэтому тест работает без общей транзакции
+        userRepository.save(new User("Stats Seed", "stats-seed@example.com", 25));
+        userStatistics.reconcile();
+        String today = LocalDate.now().toString();
+
+        try {
+            mockMvc.perform(get("/api/users/stats"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.total").value(1))
+                    .andExpect(jsonPath("$.ageHistogram['20-29']").value(1))
+                    .andExpect(jsonPath("$.signupsPerDay['" + today + "']").value(1));
+
+            UserResponse created = userService.createUser(new UserRequest("Stats New", "stats-new@example.com", 47));
+            userService.updateUser(created.getId(), new UserRequest("Stats New", "stats-new@example.com", 52), null);
+
+            mockMvc.perform(get("/api/users/stats").param("days", "1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.total").value(2))
+                    .andExpect(jsonPath("$.ageHistogram['40-49']").value(0))
+                    .andExpect(jsonPath("$.ageHistogram['50-59']").value(1))
+                    .andExpect(jsonPath("$.signupsPerDay['" + today + "']").value(2));
+
+            userService.deleteUser(created.getId(), null);
+
+            mockMvc.perform(get("/api/users/stats"))
+                    .andExpect(jsonPath("$.total").value(1))
+                    .andExpect(jsonPath("$.ageHistogram['50-59']").value(0))
+                    .andExpect(jsonPath("$.signupsPerDay['" + today + "']").value(1));
+
+            // PATCH и массовое удаление вносят точный вклад без сверки
+            UserResponse patched = userService.createUser(new UserRequest("Stats Patch", "stats-patch@example.com", 33));
+            userService.patchUser(patched.getId(), new UserPatchRequest(null, null, 61), null);
+
+            mockMvc.perform(get("/api/users/stats"))
+                    .andExpect(jsonPath("$.total").value(2))
+                    .andExpect(jsonPath("$.ageHistogram['30-39']").value(0))
+                    .andExpect(jsonPath("$.ageHistogram['60-69']").value(1));
+
+            userService.deleteUsers(List.of(patched.getId(), created.getId()));
+
+            mockMvc.perform(get("/api/users/stats"))
+                    .andExpect(jsonPath("$.total").value(1))
+                    .andExpect(jsonPath("$.ageHistogram['60-69']").value(0))
+                    .andExpect(jsonPath("$.ageHistogram['20-29']").value(1))
+                    .andExpect(jsonPath("$.signupsPerDay['" + today + "']").value(1));
+        } finally {
+            userRepository.deleteAll();
+            userStatistics.reconcile();
+        }
     }
 
     private Long extractUserIdFromJson(String json) {
@@ -0,0 +1,143 @@
+package com.example.userservice.loadtest;
+
+import com.example.userservice.loadtest.LoadGenerator.Operation;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Базовая линия нагрузочного теста: общая пропускная способность (запросов в секунду), p99 всех запросов
+ * и каждой операции (мс), записанные прогоном с {@code -Dloadtest.record-baseline=true}.
+ *
+ * Прогон не проходит, если p99 всех запросов или отдельной операции больше базового более чем на
+ * p99-tolerance, пропускная способность меньше более чем на throughput-tolerance или доля ошибок выше
+ * max-error-rate. p99 операции, у которой за прогон меньше min-samples запросов, только выводится:
+ * на сотнях замеров он определяется несколькими самыми медленными запросами и скачет от прогона к прогону.
+ *
+ * Настройки записавшего прогона (клиенты, длительность, темп, смесь операций, профили) хранятся ключами
+ * {@code settings.*}: с прогоном при других настройках базовая линия не сравнивается.
+ */
+final class LoadBaseline {
+
+    static final String THROUGHPUT = "throughput";
+    static final String P99_PREFIX = "p99.";
+    static final String P99_TOTAL = P99_PREFIX + "total";
+    static final String SETTINGS_PREFIX = "settings.";
+
+    private final Properties values;
+
+    private LoadBaseline(Properties values) {
+        this.values = values;
+    }
+
+    static LoadBaseline load(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            throw new IllegalStateException("No load test baseline at " + path
+                    + "; record one with -Dloadtest.record-baseline=true");
+        }
+        Properties values = new Properties();
+        try (Reader reader = Files.newBufferedReader(path)) {
+            values.load(reader);
+        }
+        return new LoadBaseline(values);
+    }
+
+    /**
+     * Записывает результат в формате базовой линии: им же сохраняется измеренное в target для сравнения.
+     */
+    static void write(Path path, Map<String, String> settings, LoadGenerator.Result result, Set<Operation> operations,
+                      String header) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (String line : header.split("\n")) {
+            lines.add("# " + line);
+        }
+        settings.forEach((name, value) -> lines.add(SETTINGS_PREFIX + name + "=" + value));
+        lines.add(THROUGHPUT + "=" + format(result.throughput()));
+        lines.add(P99_TOTAL + "=" + format(result.total().getValueAtPercentile(99.0) / 1_000.0));
+        for (Operation operation : operations) {
+            lines.add(P99_PREFIX + operation.key() + "=" + format(result.p99Millis(operation)));
+        }
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Files.write(path, lines);
+    }
+
+    /**
+     * Настройки, с которыми прогон отличается от записавшего базовую линию: «имя: базовое != текущее».
+     * Пустой список — результаты сравнимы.
+     */
+    List<String> settingsMismatches(Map<String, String> settings) {
+        Set<String> names = new TreeSet<>(settings.keySet());
+        for (String key : values.stringPropertyNames()) {
+            if (key.startsWith(SETTINGS_PREFIX)) {
+                names.add(key.substring(SETTINGS_PREFIX.length()));
+            }
+        }
+        List<String> mismatches = new ArrayList<>();
+        for (String name : names) {
+            String recorded = values.getProperty(SETTINGS_PREFIX + name);
+            if (!Objects.equals(recorded, settings.get(name))) {
+                mismatches.add(name + ": " + recorded + " != " + settings.get(name));
+            }
+        }
+        return mismatches;
+    }
+
+    /**
+     * Нарушения порогов; пустой список — прогон прошёл.
+     */
+    List<String> check(LoadGenerator.Result result, Set<Operation> operations, double p99Tolerance,
+                       double throughputTolerance, double maxErrorRate, long minSamples) {
+        List<String> violations = new ArrayList<>();
+
+        double minThroughput = required(THROUGHPUT) * (1 - throughputTolerance);
+        if (result.throughput() < minThroughput) {
+            violations.add(String.format(Locale.ROOT, "throughput %.1f req/s is below %.1f req/s (baseline %s -%.0f%%)",
+                    result.throughput(), minThroughput, values.getProperty(THROUGHPUT), throughputTolerance * 100));
+        }
+
+        checkP99(violations, "total", result.total().getValueAtPercentile(99.0) / 1_000.0, p99Tolerance);
+        for (Operation operation : operations) {
+            if (result.latencies().get(operation).getTotalCount() >= minSamples) {
+                checkP99(violations, operation.key(), result.p99Millis(operation), p99Tolerance);
+            }
+        }
+
+        if (result.errorRate() > maxErrorRate) {
+            violations.add(String.format(Locale.ROOT, "error rate %.4f%% exceeds %.4f%%",
+                    result.errorRate() * 100, maxErrorRate * 100));
+        }
+        return violations;
+    }
+
+    private void checkP99(List<String> violations, String name, double p99Millis, double tolerance) {
+        String key = P99_PREFIX + name;
+        double maxP99 = required(key) * (1 + tolerance);
+        if (p99Millis > maxP99) {
+            violations.add(String.format(Locale.ROOT, "%s p99 %.2f ms exceeds %.2f ms (baseline %s +%.0f%%)",
+                    name, p99Millis, maxP99, values.getProperty(key), tolerance * 100));
+        }
+    }
+
+    private double required(String key) {
+        String value = values.getProperty(key);
+        if (value == null) {
+            throw new IllegalStateException("Load test baseline has no '" + key
+                    + "'; re-record it with -Dloadtest.record-baseline=true");
+        }
+        return Double.parseDouble(value);
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+}
@@ -0,0 +1,299 @@
+package com.example.userservice.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Смешанная нагрузка на /api/users: каждый клиент — виртуальный поток, операция выбирается по весам mix.
+ * Задержки успешных запросов пишутся в HdrHistogram (микросекунды) отдельно по операциям.
+ *
+ * GET и список читают заранее созданных пользователей (seed); PUT и DELETE — только пользователей,
+ * созданных этим же клиентом, поэтому клиенты не получают 404 и 409 друг из-за друга.
+ *
+ * При rate > 0 клиенты отправляют запросы по расписанию, и задержка отсчитывается от запланированного
+ * момента: если сервис встал, накопившееся ожидание попадает в гистограмму (поправка на coordinated
+ * omission). При rate = 0 — замкнутый цикл: следующий запрос сразу после ответа на предыдущий.
+ */
+final class LoadGenerator {
+
+    enum Operation {
+        CREATE, GET, UPDATE, DELETE, LIST;
+
+        String key() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl;
+    private final Set<Operation> operations;
+    private final Operation[] weighted;
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final AtomicLong emailSequence = new AtomicLong();
+    private final List<Thread> clients = new ArrayList<>();
+
+    private long[] seedIds = new long[0];
+    private volatile boolean running;
+    private long intervalStart;
+
+    LoadGenerator(String baseUrl, Map<Operation, Integer> mix) {
+        this.baseUrl = baseUrl;
+        this.operations = Collections.unmodifiableSet(EnumSet.copyOf(mix.keySet()));
+        List<Operation> weightedOperations = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weightedOperations.add(operation);
+            }
+        });
+        this.weighted = weightedOperations.toArray(Operation[]::new);
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    /**
+     * Разбирает смесь вида {@code create:10,get:50,update:15,delete:5,list:20}; веса — целые числа.
+     */
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid load mix entry '" + entry + "', expected operation:weight");
+            }
+            Operation operation = Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT));
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight for " + operation.key());
+            }
+            if (weight > 0) {
+                weights.put(operation, weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Load mix has no operations: " + mix);
+        }
+        return weights;
+    }
+
+    Set<Operation> operations() {
+        return operations;
+    }
+
+    void seed(int users) throws IOException, InterruptedException {
+        long[] ids = new long[users];
+        for (int i = 0; i < users; i++) {
+            HttpResponse<String> response = http.send(createRequest(nextEmail()), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Seeding failed with HTTP " + response.statusCode() + ": " + response.body());
+            }
+            ids[i] = parseId(response.body());
+        }
+        seedIds = ids;
+    }
+
+    /**
+     * Запускает клиентов; rate — суммарное число запросов в секунду (0 — без ограничения).
+     */
+    void start(int clientCount, double rate) {
+        if (seedIds.length == 0) {
+            throw new IllegalStateException("Seed users before starting the load");
+        }
+        long intervalNanos = rate > 0 ? (long) (clientCount * 1_000_000_000L / rate) : 0;
+        running = true;
+        intervalStart = System.nanoTime();
+        for (int i = 0; i < clientCount; i++) {
+            clients.add(Thread.ofVirtual().name("load-client-" + i).start(() -> runClient(intervalNanos)));
+        }
+    }
+
+    /**
+     * Задержки и ошибки с предыдущего снимка (или с запуска); счётчики при этом обнуляются,
+     * так что снимок в конце прогрева отбрасывает его результаты.
+     */
+    Result snapshot() {
+        long now = System.nanoTime();
+        Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+        Map<Operation, Long> errorCounts = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, recorders.get(operation).getIntervalHistogram());
+            errorCounts.put(operation, errors.get(operation).sumThenReset());
+        }
+        double seconds = (now - intervalStart) / 1_000_000_000.0;
+        intervalStart = now;
+        return new Result(latencies, errorCounts, seconds);
+    }
+
+    void stop() throws InterruptedException {
+        running = false;
+        for (Thread client : clients) {
+            client.join();
+        }
+        clients.clear();
+        http.close();
+    }
+
+    private void runClient(long intervalNanos) {
+        // Пользователи этого клиента: их изменяет и удаляет только он
+        Deque<OwnUser> own = new ArrayDeque<>();
+        long scheduled = System.nanoTime() + ThreadLocalRandom.current().nextLong(Math.max(intervalNanos, 1));
+        while (running) {
+            long start;
+            if (intervalNanos > 0) {
+                for (long delay = scheduled - System.nanoTime(); delay > 0; delay = scheduled - System.nanoTime()) {
+                    LockSupport.parkNanos(delay);
+                }
+                start = scheduled;
+                scheduled += intervalNanos;
+            } else {
+                start = System.nanoTime();
+            }
+
+            Operation operation = weighted[ThreadLocalRandom.current().nextInt(weighted.length)];
+            if ((operation == Operation.UPDATE || operation == Operation.DELETE) && own.isEmpty()) {
+                operation = Operation.CREATE;
+            }
+            boolean succeeded = execute(operation, own);
+            long micros = (System.nanoTime() - start) / 1_000;
+            if (succeeded) {
+                recorders.get(operation).recordValue(micros);
+            } else {
+                errors.get(operation).increment();
+            }
+        }
+    }
+
+    private boolean execute(Operation operation, Deque<OwnUser> own) {
+        try {
+            return switch (operation) {
+                case CREATE -> {
+                    String email = nextEmail();
+                    HttpResponse<String> response = http.send(createRequest(email), HttpResponse.BodyHandlers.ofString());
+                    if (response.statusCode() != 201) {
+                        yield false;
+                    }
+                    own.addLast(new OwnUser(parseId(response.body()), email));
+                    yield true;
+                }
+                case GET -> send(HttpRequest.newBuilder(URI.create(baseUrl + "/" + randomSeedId())).GET()) == 200;
+                case UPDATE -> {
+                    // По кругу: обновлённый пользователь уходит в конец очереди
+                    OwnUser user = own.pollFirst();
+                    own.addLast(user);
+                    yield send(HttpRequest.newBuilder(URI.create(baseUrl + "/" + user.id()))
+                            .header("Content-Type", "application/json")
+                            .PUT(HttpRequest.BodyPublishers.ofString(userJson(user.email(),
+                                    18 + ThreadLocalRandom.current().nextInt(60))))) == 200;
+                }
+                case DELETE -> send(HttpRequest.newBuilder(URI.create(baseUrl + "/" + own.pollFirst().id()))
+                        .DELETE()) == 204;
+                case LIST -> send(HttpRequest.newBuilder(URI.create(baseUrl + "?limit=20&after=" + randomSeedId()))
+                        .GET()) == 200;
+            };
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+            return false;
+        }
+    }
+
+    private int send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return http.send(request.timeout(REQUEST_TIMEOUT).build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private HttpRequest createRequest(String email) {
+        return HttpRequest.newBuilder(URI.create(baseUrl))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(userJson(email, 30)))
+                .build();
+    }
+
+    private String nextEmail() {
+        return "load-" + emailSequence.incrementAndGet() + "@example.com";
+    }
+
+    private long randomSeedId() {
+        return seedIds[ThreadLocalRandom.current().nextInt(seedIds.length)];
+    }
+
+    private static String userJson(String email, int age) {
+        return "{\"name\":\"Load User\",\"email\":\"" + email + "\",\"age\":" + age + "}";
+    }
+
+    private static long parseId(String body) {
+        Matcher matcher = ID.matcher(body);
+        if (!matcher.find()) {
+            throw new IllegalStateException("No id in response: " + body);
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    private record OwnUser(long id, String email) {
+    }
+
+    /**
+     * Результат интервала: гистограммы задержек успешных запросов (мкс) и число ошибок по операциям.
+     */
+    record Result(Map<Operation, Histogram> latencies, Map<Operation, Long> errors, double seconds) {
+
+        Histogram total() {
+            Histogram total = new Histogram(3);
+            latencies.values().forEach(total::add);
+            return total;
+        }
+
+        double throughput() {
+            return total().getTotalCount() / seconds;
+        }
+
+        double throughput(Operation operation) {
+            return latencies.get(operation).getTotalCount() / seconds;
+        }
+
+        double p99Millis(Operation operation) {
+            return latencies.get(operation).getValueAtPercentile(99.0) / 1_000.0;
+        }
+
+        double errorRate() {
+            long failed = errors.values().stream().mapToLong(Long::longValue).sum();
+            long all = failed + total().getTotalCount();
+            return all == 0 ? 0 : (double) failed / all;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.userservice.loadtest;
+
+import com.example.userservice.UserServiceApplication;
+import com.example.userservice.loadtest.LoadGenerator.Operation;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Нагрузочный тест с порогами регрессии: поднимает приложение на встроенной H2, нагружает /api/users
+ * смесью create/get/update/delete/list и сравнивает p99 и пропускную способность с базовой линией
+ * (см. {@link LoadBaseline}). При нарушении порогов процесс завершается с кодом 1 — и сборка падает.
+ *
+ * Запуск (профиль load-test, фаза integration-test):
+ * mvn -Pload-test verify -DskipTests
+ * Параметры — -Dloadtest.clients, duration и warmup (секунды), rate (запросов в секунду, 0 — замкнутый цикл),
+ * mix, seed-users, profiles; значения по умолчанию — в профиле pom.xml. Новая базовая линия на этой машине:
+ * mvn -Pload-test verify -DskipTests -Dloadtest.record-baseline=true
+ * Базовая линия хранит настройки записавшего прогона; при других настройках тест не сравнивает и завершается с кодом 1.
+ *
+ * Гистограммы задержек (формат HdrHistogram .hgrm, мс) и измеренные значения пишутся в loadtest.output.
+ * Клиенты и сервер делят одну JVM и процессор, поэтому базовая линия привязана к машине, на которой записана.
+ *
+ * Сравнение режимов обработки запросов — прогоны с профилями режима (test,virtual-threads или, со сборкой
+ * -Preactive, test,reactive), каждый со своей базовой линией и каталогом вывода, например:
+ * mvn -Pload-test verify -DskipTests -Dloadtest.profiles=test,virtual-threads -Dloadtest.record-baseline=true
+ *     -Dloadtest.baseline=target/load-test-virtual-threads.properties -Dloadtest.output=target/load-test/virtual-threads
+ */
+public class LoadTestHarness {
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("loadtest.clients", 64);
+        int warmupSeconds = Integer.getInteger("loadtest.warmup", 10);
+        int durationSeconds = Integer.getInteger("loadtest.duration", 30);
+        double rate = Double.parseDouble(System.getProperty("loadtest.rate", "0"));
+        int seedUsers = Integer.getInteger("loadtest.seed-users", 1_000);
+        String mixSetting = System.getProperty("loadtest.mix", "create:10,get:50,update:15,delete:5,list:20");
+        Map<Operation, Integer> mix = LoadGenerator.parseMix(mixSetting);
+        String[] profiles = System.getProperty("loadtest.profiles", "test").split(",");
+        Path baselinePath = Path.of(System.getProperty("loadtest.baseline",
+                "src/test/resources/load-test-baseline.properties"));
+        Path output = Path.of(System.getProperty("loadtest.output", "target/load-test"));
+        boolean recordBaseline = Boolean.getBoolean("loadtest.record-baseline");
+        double p99Tolerance = Double.parseDouble(System.getProperty("loadtest.p99-tolerance", "0.5"));
+        double throughputTolerance = Double.parseDouble(System.getProperty("loadtest.throughput-tolerance", "0.3"));
+        double maxErrorRate = Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.001"));
+        long minSamples = Long.getLong("loadtest.min-samples", 1_000);
+
+        // Настройки, от которых зависят задержки и пропускная способность: базовая линия сравнима только при тех же
+        Map<String, String> settings = new LinkedHashMap<>();
+        settings.put("clients", Integer.toString(clients));
+        settings.put("warmup", warmupSeconds + "s");
+        settings.put("duration", durationSeconds + "s");
+        settings.put("rate", rate > 0 ? rate + "/s" : "closed-loop");
+        settings.put("mix", mixSetting);
+        settings.put("seed-users", Integer.toString(seedUsers));
+        settings.put("profiles", String.join(",", profiles));
+        System.out.println("Load test: " + settings);
+
+        // Несравнимую базовую линию проверяем до прогона, чтобы не тратить на него время
+        LoadBaseline baseline = recordBaseline ? null : LoadBaseline.load(baselinePath);
+        if (baseline != null) {
+            List<String> mismatches = baseline.settingsMismatches(settings);
+            if (!mismatches.isEmpty()) {
+                System.out.println("Load test settings differ from the baseline " + baselinePath
+                        + "; run with its settings or re-record it with -Dloadtest.record-baseline=true:");
+                mismatches.forEach(mismatch -> System.out.println("  " + mismatch));
+                System.exit(1);
+            }
+        }
+
+        LoadGenerator generator;
+        LoadGenerator.Result result;
+        // Аргументы командной строки, а не .properties(): те имеют низший приоритет и уступили бы профилям
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(UserServiceApplication.class)
+                .profiles(profiles)
+                .run(concat(args,
+                        "--server.port=0",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        // Профиль reactive: та же встроенная H2 через R2DBC, схему создаёт db/reactive-schema.sql
+                        "--user-service.r2dbc.url=r2dbc:h2:mem:///loadtest?options=DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                        "--user-service.r2dbc.username="))) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            generator = new LoadGenerator("http://localhost:" + port + "/api/users", mix);
+            generator.seed(seedUsers);
+
+            generator.start(clients, rate);
+            // Прогрев JIT, пулов и кешей; его результаты отбрасываются
+            Thread.sleep(warmupSeconds * 1_000L);
+            generator.snapshot();
+            Thread.sleep(durationSeconds * 1_000L);
+            result = generator.snapshot();
+            generator.stop();
+        }
+
+        Set<Operation> operations = generator.operations();
+        report(System.out, result, operations);
+        writeHistograms(output, result, operations);
+        LoadBaseline.write(output.resolve("measured.properties"), settings, result, operations, "Измерено");
+
+        if (recordBaseline) {
+            LoadBaseline.write(baselinePath, settings, result, operations,
+                    "Базовая линия нагрузочного теста (mvn -Pload-test verify -DskipTests -Dloadtest.record-baseline=true)");
+            System.out.println("Baseline recorded to " + baselinePath.toAbsolutePath());
+            return;
+        }
+
+        List<String> violations = baseline.check(result, operations, p99Tolerance, throughputTolerance, maxErrorRate, minSamples);
+        if (!violations.isEmpty()) {
+            System.out.println("Load test FAILED against " + baselinePath + ":");
+            violations.forEach(violation -> System.out.println("  " + violation));
+            System.exit(1);
+        }
+        System.out.println("Load test passed against " + baselinePath);
+    }
+
+    private static void report(PrintStream out, LoadGenerator.Result result, Set<Operation> operations) {
+        out.printf(Locale.ROOT, "%-7s %10s %10s %9s %9s %9s %9s %7s%n",
+                "op", "count", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        for (Operation operation : operations) {
+            printRow(out, operation.key(), result.latencies().get(operation), result.seconds(),
+                    result.errors().get(operation));
+        }
+        long errors = result.errors().values().stream().mapToLong(Long::longValue).sum();
+        printRow(out, "total", result.total(), result.seconds(), errors);
+    }
+
+    private static void printRow(PrintStream out, String label, Histogram histogram, double seconds, long errors) {
+        out.printf(Locale.ROOT, "%-7s %,10d %,10.1f %9.2f %9.2f %9.2f %9.2f %,7d%n",
+                label, histogram.getTotalCount(), histogram.getTotalCount() / seconds,
+                histogram.getValueAtPercentile(50.0) / 1_000.0, histogram.getValueAtPercentile(99.0) / 1_000.0,
+                histogram.getValueAtPercentile(99.9) / 1_000.0, histogram.getMaxValue() / 1_000.0, errors);
+    }
+
+    private static void writeHistograms(Path output, LoadGenerator.Result result, Set<Operation> operations)
+            throws IOException {
+        Files.createDirectories(output);
+        for (Operation operation : operations) {
+            writeHistogram(output.resolve(operation.key() + ".hgrm"), result.latencies().get(operation));
+        }
+        writeHistogram(output.resolve("total.hgrm"), result.total());
+    }
+
+    private static void writeHistogram(Path path, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(path))) {
+            // Значения записаны в микросекундах; масштаб 1000 — перцентили в миллисекундах
+            histogram.outputPercentileDistribution(out, 1_000.0);
+        }
+    }
+
+    private static String[] concat(String[] args, String... defaults) {
+        String[] all = new String[defaults.length + args.length];
+        System.arraycopy(defaults, 0, all, 0, defaults.length);
+        System.arraycopy(args, 0, all, defaults.length, args.length);
+        return all;
+    }
+}
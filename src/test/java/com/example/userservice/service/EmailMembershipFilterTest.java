@@ -0,0 +1,68 @@
+package com.example.userservice.service;
+
+import com.example.userservice.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailMembershipFilterTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Test
+    void beforeLoad_ShouldAnswerMaybePresent() {
+        EmailMembershipFilter filter = new EmailMembershipFilter(userRepository, true, 1000, 0.01);
+
+        assertTrue(filter.mightContain("anyone@example.com"));
+    }
+
+    @Test
+    void afterLoad_ShouldHaveNoFalseNegativesAndFewFalsePositives() {
+        // Given
+        when(userRepository.streamAllEmails())
+                .thenReturn(IntStream.range(0, 10_000).mapToObj(i -> "user" + i + "@example.com"));
+        EmailMembershipFilter filter = new EmailMembershipFilter(userRepository, true, 10_000, 0.01);
+
+        // When
+        filter.load();
+        filter.add("added-later@example.com");
+
+        // Then
+        IntStream.range(0, 10_000).forEach(i -> assertTrue(filter.mightContain("user" + i + "@example.com")));
+        assertTrue(filter.mightContain("added-later@example.com"));
+
+        long falsePositives = IntStream.range(0, 10_000)
+                .filter(i -> filter.mightContain("absent" + i + "@example.com"))
+                .count();
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void whenDisabled_ShouldAlwaysAnswerMaybePresentAndSkipLoading() {
+        EmailMembershipFilter filter = new EmailMembershipFilter(userRepository, false, 1000, 0.01);
+
+        filter.load();
+
+        assertTrue(filter.mightContain("anyone@example.com"));
+        verify(userRepository, never()).streamAllEmails();
+    }
+
+    @Test
+    void emptyTable_ShouldAnswerDefinitelyAbsent() {
+        when(userRepository.streamAllEmails()).thenReturn(Stream.empty());
+        EmailMembershipFilter filter = new EmailMembershipFilter(userRepository, true, 1000, 0.01);
+
+        filter.load();
+
+        assertFalse(filter.mightContain("new@example.com"));
+    }
+}
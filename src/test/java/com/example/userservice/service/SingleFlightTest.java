@@ -0,0 +1,105 @@
+package com.example.userservice.service;
+
+import com.example.userservice.exception.UserNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final Counter coalesced = new SimpleMeterRegistry().counter("coalesced");
+    private final SingleFlight<Long, String> singleFlight = new SingleFlight<>(coalesced);
+
+    @Test
+    void concurrentLoadsOfSameKey_ShouldShareOneLoad() throws Exception {
+        // Given
+        int followers = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(followers + 1)) {
+            // When
+            results.add(executor.submit(() -> singleFlight.load(1L, () -> {
+                loads.incrementAndGet();
+                leaderStarted.countDown();
+                await(release);
+                return "user-1";
+            })));
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < followers; i++) {
+                results.add(executor.submit(() -> singleFlight.load(1L, () -> {
+                    loads.incrementAndGet();
+                    return "unexpected";
+                })));
+            }
+            while (coalesced.count() < followers) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            // Then
+            for (Future<String> result : results) {
+                assertEquals("user-1", result.get(5, TimeUnit.SECONDS));
+            }
+        }
+        assertEquals(1, loads.get());
+        assertEquals(followers, coalesced.count());
+    }
+
+    @Test
+    void failedLoad_ShouldNotBeRemembered() {
+        assertThrows(UserNotFoundException.class,
+                () -> singleFlight.load(1L, () -> { throw new UserNotFoundException(1L); }));
+
+        assertEquals("user-1", singleFlight.load(1L, () -> "user-1"));
+        assertEquals(0, coalesced.count());
+    }
+
+    @Test
+    void forget_ShouldMakeNextCallStartFreshLoad() throws Exception {
+        // Given
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Future<String> stale = executor.submit(() -> singleFlight.load(1L, () -> {
+                leaderStarted.countDown();
+                await(release);
+                return "before-write";
+            }));
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+            // When
+            singleFlight.forget(1L);
+            String fresh = singleFlight.load(1L, () -> "after-write");
+            release.countDown();
+
+            // Then
+            assertEquals("after-write", fresh);
+            assertEquals("before-write", stale.get(5, TimeUnit.SECONDS));
+            assertEquals(0, coalesced.count());
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
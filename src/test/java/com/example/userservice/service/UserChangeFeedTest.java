@@ -0,0 +1,168 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dto.UserChangePageResponse;
+import com.example.userservice.dto.UserChangeResponse;
+import com.example.userservice.dto.UserPatchRequest;
+import com.example.userservice.dto.UserRequest;
+import com.example.userservice.dto.UserResponse;
+import com.example.userservice.entity.UserChange;
+import com.example.userservice.exception.ChangesExpiredException;
+import com.example.userservice.exception.EmailAlreadyExistsException;
+import com.example.userservice.repository.UserChangeRepository;
+import com.example.userservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Отдельная база: планировщики других тестовых контекстов не нумеруют события этого теста
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:changes;DB_CLOSE_DELAY=-1",
+        "user-service.changes.publish-interval=1h",
+        "user-service.changes.prune-interval=1h",
+        "user-service.changes.retention=0s"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserChangeFeedTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserChangeFeed changeFeed;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserChangeRepository changeRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAllInBatch();
+        changeRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void mutations_ShouldAppearInFeedInCommitOrderOncePublished() {
+        UserResponse anna = userService.createUser(new UserRequest("Anna", "anna@example.com", 28));
+        userService.updateUser(anna.getId(), new UserRequest("Anna", "anna@example.com", 29), null);
+        userService.patchUser(anna.getId(), new UserPatchRequest("Anna Ivanova", null, null), null);
+        UserResponse petr = userService.createUser(new UserRequest("Petr", "petr@example.com", 35));
+        userService.deleteUser(petr.getId(), null);
+        userService.deleteUsers(List.of(anna.getId(), 999_999L));
+        userService.createUser(new UserRequest("Twin", "twin@example.com", 20));
+        // Откат транзакции отменяет и событие
+        assertThrows(EmailAlreadyExistsException.class,
+                () -> userService.createUser(new UserRequest("Twin", "twin@example.com", 20)));
+
+        // До публикации у событий нет позиций, и лента их не показывает
+        assertTrue(changeFeed.getChanges(null, 100).getChanges().isEmpty());
+
+        changeFeed.publish();
+
+        List<UserChangeResponse> changes = changeFeed.getChanges(null, 100).getChanges();
+        assertEquals(List.of(UserChange.Type.CREATED, UserChange.Type.UPDATED, UserChange.Type.UPDATED,
+                        UserChange.Type.CREATED, UserChange.Type.DELETED, UserChange.Type.DELETED,
+                        UserChange.Type.CREATED),
+                changes.stream().map(UserChangeResponse::getType).toList());
+        long first = changes.get(0).getPosition();
+        for (int i = 0; i < changes.size(); i++) {
+            assertEquals(first + i, changes.get(i).getPosition());
+        }
+        assertEquals("Anna Ivanova", changes.get(2).getName());
+        assertEquals(29, changes.get(2).getAge());
+        assertEquals(2L, changes.get(2).getVersion());
+        // DELETED несёт версию удалённой строки
+        assertEquals(petr.getVersion(), changes.get(4).getVersion());
+        assertEquals(anna.getId(), changes.get(5).getUserId());
+        assertEquals(2L, changes.get(5).getVersion());
+        assertEquals("twin@example.com", changes.get(6).getEmail());
+
+        UserChangePageResponse page = changeFeed.getChanges(first + 2, 2);
+        assertEquals(List.of(first + 3, first + 4),
+                page.getChanges().stream().map(UserChangeResponse::getPosition).toList());
+        assertEquals(first + 4, page.getNext());
+    }
+
+    @Test
+    void prune_ShouldDeleteOldChangesAndExpireStaleCursors() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            userService.createUser(new UserRequest("User " + i, "user-" + i + "@example.com", 30));
+        }
+        changeFeed.publish();
+        long first = changeFeed.getChanges(null, 100).getChanges().get(0).getPosition();
+
+        changeFeed.prune();
+
+        // Последнее событие сохраняется: по нему видно, что курсор устарел
+        List<UserChangeResponse> remaining = changeFeed.getChanges(null, 100).getChanges();
+        assertEquals(1, remaining.size());
+        assertEquals(first + 4, remaining.get(0).getPosition());
+        assertThrows(ChangesExpiredException.class, () -> changeFeed.getChanges(first, 100));
+        assertEquals(1, changeFeed.getChanges(first + 3, 100).getChanges().size());
+
+        mockMvc.perform(get("/api/users/changes").param("since", Long.toString(first)))
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    void streamChanges_ShouldSendBacklogThenNewChangesAndResumeFromLastEventId() throws Exception {
+        userService.createUser(new UserRequest("Before", "before@example.com", 30));
+        changeFeed.publish();
+        long first = changeFeed.getChanges(null, 100).getChanges().get(0).getPosition();
+
+        MvcResult stream = mockMvc.perform(get("/api/users/changes")
+                        .param("since", Long.toString(first - 1))
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        awaitContent(stream.getResponse(), "before@example.com");
+
+        userService.createUser(new UserRequest("After", "after@example.com", 31));
+        changeFeed.publish();
+        String events = awaitContent(stream.getResponse(), "after@example.com");
+        assertTrue(events.contains("id:" + first + "\n"));
+        assertTrue(events.contains("event:" + UserChangeFeed.CHANGE_EVENT + "\n"));
+        assertTrue(events.contains("id:" + (first + 1) + "\n"));
+
+        MvcResult resumed = mockMvc.perform(get("/api/users/changes")
+                        .header("Last-Event-ID", Long.toString(first))
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String resumedEvents = awaitContent(resumed.getResponse(), "after@example.com");
+        assertFalse(resumedEvents.contains("before@example.com"));
+    }
+
+    private static String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        String content = response.getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = response.getContentAsString();
+        }
+        assertTrue(content.contains(expected), "SSE stream should contain " + expected + ": " + content);
+        return content;
+    }
+}
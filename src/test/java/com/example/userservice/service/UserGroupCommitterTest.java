@@ -0,0 +1,130 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dto.UserRequest;
+import com.example.userservice.entity.User;
+import com.example.userservice.exception.EmailAlreadyExistsException;
+import com.example.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "user-service.group-commit.enabled=true",
+        "user-service.group-commit.max-batch-size=50",
+        "user-service.group-commit.max-delay=20ms"
+})
+@ActiveProfiles("test")
+class UserGroupCommitterTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    @AfterEach
+    void cleanUp() {
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void createUser_ConcurrentSignups_ShouldInsertInGroupsAndRejectEveryDuplicate() throws Exception {
+        userService.createUser(new UserRequest("Existing", "taken-0@example.com", 40));
+        userService.createUser(new UserRequest("Existing", "taken-1@example.com", 40));
+
+        List<UserRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            requests.add(new UserRequest("Unique " + i, "unique-" + i + "@example.com", 20 + i % 50));
+        }
+        // Каждый из этих email приходит трижды одновременно: создаётся ровно один пользователь
+        for (int i = 0; i < 10; i++) {
+            for (int copy = 0; copy < 3; copy++) {
+                requests.add(new UserRequest("Twin " + copy, "twin-" + i + "@example.com", 30));
+            }
+        }
+        requests.add(new UserRequest("Late", "taken-0@example.com", 50));
+        requests.add(new UserRequest("Late", "taken-1@example.com", 50));
+
+        Map<String, Integer> created = createConcurrently(requests);
+
+        for (int i = 0; i < 60; i++) {
+            assertEquals(1, created.get("unique-" + i + "@example.com"));
+        }
+        for (int i = 0; i < 10; i++) {
+            assertEquals(1, created.get("twin-" + i + "@example.com"));
+        }
+        assertEquals(0, created.get("taken-0@example.com"));
+        assertEquals(0, created.get("taken-1@example.com"));
+        assertEquals(72, userRepository.count());
+
+        DistributionSummary batchSizes = meterRegistry.get(UserGroupCommitter.BATCH_SIZE_METRIC).summary();
+        assertTrue(batchSizes.max() > 1, "Concurrent signups should share a commit");
+    }
+
+    @Test
+    void createUser_EmailTakenBehindFilter_ShouldRejectOnlyConflictingSignup() throws Exception {
+        // Строка вставлена мимо UserService: фильтр Блума о ней не знает, и пакет упирается в уникальный индекс
+        userRepository.saveAndFlush(new User("Direct", "direct@example.com", 33));
+
+        List<UserRequest> requests = new ArrayList<>();
+        requests.add(new UserRequest("Conflict", "direct@example.com", 34));
+        for (int i = 0; i < 20; i++) {
+            requests.add(new UserRequest("Neighbour " + i, "neighbour-" + i + "@example.com", 25));
+        }
+
+        Map<String, Integer> created = createConcurrently(requests);
+
+        assertEquals(0, created.get("direct@example.com"));
+        for (int i = 0; i < 20; i++) {
+            assertEquals(1, created.get("neighbour-" + i + "@example.com"));
+        }
+        assertEquals(21, userRepository.count());
+    }
+
+    // Число успешно созданных пользователей по email
+    private Map<String, Integer> createConcurrently(List<UserRequest> requests) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (UserRequest request : requests) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        userService.createUser(request);
+                        return true;
+                    } catch (EmailAlreadyExistsException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            Map<String, Integer> created = new HashMap<>();
+            for (int i = 0; i < requests.size(); i++) {
+                created.merge(requests.get(i).getEmail(), results.get(i).get() ? 1 : 0, Integer::sum);
+            }
+            return created;
+        }
+    }
+}
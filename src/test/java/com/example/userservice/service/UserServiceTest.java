@@ -1,20 +1,43 @@
 package com.example.userservice.service;
 
+import com.example.userservice.config.CacheConfig;
+import com.example.userservice.dto.UserBatchOperation;
+import com.example.userservice.dto.UserBatchResult;
+import com.example.userservice.dto.UserBulkDeleteResponse;
+import com.example.userservice.dto.UserFilter;
+import com.example.userservice.dto.UserMultiGetResponse;
+import com.example.userservice.dto.UserPageResponse;
+import com.example.userservice.dto.UserPatchRequest;
 import com.example.userservice.dto.UserRequest;
 import com.example.userservice.dto.UserResponse;
+import com.example.userservice.dto.UserVersionCondition;
 import com.example.userservice.entity.User;
+import com.example.userservice.exception.BatchConflictException;
+import com.example.userservice.exception.EmailAlreadyExistsException;
+import com.example.userservice.exception.UserNotFoundException;
+import com.example.userservice.exception.UserVersionMismatchException;
 import com.example.userservice.repository.UserRepository;
+import com.example.userservice.repository.UserRowHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -27,6 +50,30 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private EmailMembershipFilter emailFilter;
+
+    @Mock
+    private UserStatistics statistics;
+
+    @Mock
+    private UserChangeFeed changeFeed;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private UserGroupCommitter groupCommitter;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private UserService userService;
 
@@ -48,8 +95,7 @@ class UserServiceTest {
     @Test
     void createUser_WithValidData_ShouldReturnUserResponse() {
         // Given
-        when(userRepository.existsByEmail(anyString())).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
 
         // When
         UserResponse result = userService.createUser(userRequest);
@@ -61,52 +107,116 @@ class UserServiceTest {
         assertEquals("john.doe@example.com", result.getEmail());
         assertEquals(30, result.getAge());
 
-        verify(userRepository).existsByEmail("john.doe@example.com");
-        verify(userRepository).save(any(User.class));
+        // Единственный запрос — INSERT, без предварительной проверки email
+        verify(userRepository, never()).existsByEmail(anyString());
+        verify(userRepository).saveAndFlush(any(User.class));
+        verify(emailFilter).add("john.doe@example.com");
+        verify(statistics).userCreated(30, user.getCreatedAt());
     }
 
     @Test
     void createUser_WithDuplicateEmail_ShouldThrowException() {
         // Given
-        when(userRepository.existsByEmail(anyString())).thenReturn(true);
+        when(userRepository.saveAndFlush(any(User.class)))
+                .thenThrow(new DataIntegrityViolationException("idx_user_email"));
 
         // When & Then
-        RuntimeException exception = assertThrows(RuntimeException.class,
+        EmailAlreadyExistsException exception = assertThrows(EmailAlreadyExistsException.class,
                 () -> userService.createUser(userRequest));
 
         assertEquals("User with email john.doe@example.com already exists", exception.getMessage());
-        verify(userRepository, never()).save(any(User.class));
+        verify(userRepository, never()).existsByEmail(anyString());
+        verify(emailFilter, never()).add(anyString());
+        verify(statistics, never()).userCreated(anyInt(), any());
     }
 
     @Test
-    void getAllUsers_ShouldReturnListOfUserResponses() {
+    void createUser_WithGroupCommit_ShouldInsertThroughCommitter() {
         // Given
-        User user2 = new User();
-        user2.setId(2L);
-        user2.setName("Jane Smith");
-        user2.setEmail("jane@example.com");
-        user2.setAge(25);
-        user2.setCreatedAt(LocalDateTime.now());
+        userService.setGroupCommitter(groupCommitter);
+        when(groupCommitter.insert(any(User.class))).thenReturn(user);
+
+        // When
+        UserResponse result = userService.createUser(userRequest);
+
+        // Then
+        assertEquals(1L, result.getId());
+        verify(userRepository, never()).saveAndFlush(any(User.class));
+        verify(emailFilter).add("john.doe@example.com");
+        verify(statistics).userCreated(30, user.getCreatedAt());
+    }
 
-        List<User> users = Arrays.asList(user, user2);
-        when(userRepository.findAll()).thenReturn(users);
+    @Test
+    void getUsers_WhenMoreRowsExist_ShouldReturnPageWithNextCursor() {
+        // Given
+        UserResponse first = new UserResponse(1L, "John Doe", "john.doe@example.com", 30, LocalDateTime.now());
+        UserResponse second = new UserResponse(2L, "Jane Smith", "jane@example.com", 25, LocalDateTime.now());
+        when(userRepository.findResponsesAfter(eq(0L), any(UserFilter.class), eq(2))).thenReturn(Arrays.asList(first, second));
 
         // When
-        List<UserResponse> result = userService.getAllUsers();
+        UserPageResponse result = userService.getUsers(null, 1, UserFilter.none());
 
         // Then
         assertNotNull(result);
-        assertEquals(2, result.size());
-        assertEquals("John Doe", result.get(0).getName());
-        assertEquals("Jane Smith", result.get(1).getName());
+        assertEquals(1, result.getContent().size());
+        assertEquals("John Doe", result.getContent().get(0).getName());
+        assertEquals(1L, result.getNext());
+        verify(userRepository, never()).findAll();
+    }
 
-        verify(userRepository).findAll();
+    @Test
+    void getUsers_OnLastPage_ShouldReturnNullCursor() {
+        // Given
+        UserResponse only = new UserResponse(1L, "John Doe", "john.doe@example.com", 30, LocalDateTime.now());
+        when(userRepository.findResponsesAfter(eq(0L), any(UserFilter.class), eq(21))).thenReturn(List.of(only));
+
+        // When
+        UserPageResponse result = userService.getUsers(0L, 20, UserFilter.none());
+
+        // Then
+        assertEquals(1, result.getContent().size());
+        assertNull(result.getNext());
+    }
+
+    @Test
+    void getUsers_ShouldClampLimitToMaxPageSize() {
+        // Given
+        when(userRepository.findResponsesAfter(eq(5L), any(UserFilter.class), eq(UserService.MAX_PAGE_SIZE + 1)))
+                .thenReturn(List.of());
+
+        // When
+        UserPageResponse result = userService.getUsers(5L, 100_000, UserFilter.none());
+
+        // Then
+        assertTrue(result.getContent().isEmpty());
+        assertNull(result.getNext());
+    }
+
+    @Test
+    void exportUsers_ShouldPassEveryRowToHandlerWithoutLoadingEntities() {
+        // Given
+        LocalDateTime createdAt = LocalDateTime.now();
+        doAnswer(invocation -> {
+            UserRowHandler handler = invocation.getArgument(0);
+            handler.handle(1L, "John Doe", "john.doe@example.com", 30, createdAt);
+            handler.handle(2L, "Jane Smith", "jane@example.com", 25, createdAt);
+            return null;
+        }).when(userRepository).forEachUserRow(any());
+        List<String> exported = new ArrayList<>();
+
+        // When
+        userService.exportUsers((id, name, email, age, created) -> exported.add(id + ":" + email));
+
+        // Then
+        assertEquals(List.of("1:john.doe@example.com", "2:jane@example.com"), exported);
+        verify(userRepository, never()).findAll();
     }
 
     @Test
     void getUserById_WithValidId_ShouldReturnUserResponse() {
         // Given
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        UserResponse response = new UserResponse(1L, "John Doe", "john.doe@example.com", 30, LocalDateTime.now());
+        when(userRepository.findResponseById(1L)).thenReturn(Optional.of(response));
 
         // When
         UserResponse result = userService.getUserById(1L);
@@ -116,20 +226,21 @@ class UserServiceTest {
         assertEquals(1L, result.getId());
         assertEquals("John Doe", result.getName());
 
-        verify(userRepository).findById(1L);
+        verify(userRepository).findResponseById(1L);
+        verify(userRepository, never()).findById(anyLong());
     }
 
     @Test
     void getUserById_WithInvalidId_ShouldThrowException() {
         // Given
-        when(userRepository.findById(999L)).thenReturn(Optional.empty());
+        when(userRepository.findResponseById(999L)).thenReturn(Optional.empty());
 
         // When & Then
-        RuntimeException exception = assertThrows(RuntimeException.class,
+        UserNotFoundException exception = assertThrows(UserNotFoundException.class,
                 () -> userService.getUserById(999L));
 
         assertEquals("User not found with id: 999", exception.getMessage());
-        verify(userRepository).findById(999L);
+        verify(userRepository).findResponseById(999L);
     }
 
     @Test
@@ -138,8 +249,9 @@ class UserServiceTest {
         UserRequest updateRequest = new UserRequest("John Updated", "john.updated@example.com", 31);
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(emailFilter.mightContain("john.updated@example.com")).thenReturn(true);
         when(userRepository.existsByEmail("john.updated@example.com")).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+        when(userRepository.saveAndFlush(any(User.class))).thenAnswer(invocation -> {
             User savedUser = invocation.getArgument(0);
             savedUser.setName("John Updated");
             savedUser.setEmail("john.updated@example.com");
@@ -148,17 +260,18 @@ class UserServiceTest {
         });
 
         // When
-        UserResponse result = userService.updateUser(1L, updateRequest);
+        UserResponse result = userService.updateUser(1L, updateRequest, null);
 
         // Then
         assertNotNull(result);
         assertEquals("John Updated", result.getName());
         assertEquals("john.updated@example.com", result.getEmail());
         assertEquals(31, result.getAge());
+        verify(statistics).userAgeChanged(30, 31);
 
         verify(userRepository).findById(1L);
         verify(userRepository).existsByEmail("john.updated@example.com");
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).saveAndFlush(any(User.class));
     }
 
     @Test
@@ -167,40 +280,353 @@ class UserServiceTest {
         UserRequest updateRequest = new UserRequest("John Updated", "existing@example.com", 31);
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(emailFilter.mightContain("existing@example.com")).thenReturn(true);
         when(userRepository.existsByEmail("existing@example.com")).thenReturn(true);
 
         // When & Then
-        RuntimeException exception = assertThrows(RuntimeException.class,
-                () -> userService.updateUser(1L, updateRequest));
+        EmailAlreadyExistsException exception = assertThrows(EmailAlreadyExistsException.class,
+                () -> userService.updateUser(1L, updateRequest, null));
 
         assertEquals("User with email existing@example.com already exists", exception.getMessage());
-        verify(userRepository, never()).save(any(User.class));
+        verify(userRepository, never()).saveAndFlush(any(User.class));
     }
 
     @Test
-    void deleteUser_WithValidId_ShouldDeleteUser() {
+    void patchUser_ShouldUpdateOnlyProvidedFieldsWithOneStatement() {
+        // Given
+        UserPatchRequest patchRequest = new UserPatchRequest(null, null, 31);
+        UserResponse old = new UserResponse(1L, "John Doe", "john.doe@example.com", 29, user.getCreatedAt(), 2L);
+
+        when(userRepository.patchByIdReturningOld(1L, null, null, 31, null)).thenReturn(Optional.of(old));
+
+        // When
+        UserResponse result = userService.patchUser(1L, patchRequest, null);
+
+        // Then
+        assertEquals(31, result.getAge());
+        assertEquals("John Doe", result.getName());
+        assertEquals(3L, result.getVersion());
+        verify(statistics).userAgeChanged(29, 31);
+        verify(changeFeed).userUpdated(result);
+        verify(userRepository, never()).findById(anyLong());
+        verify(userRepository, never()).findResponseById(anyLong());
+        verify(userRepository, never()).existsByEmail(anyString());
+        verify(emailFilter, never()).add(anyString());
+    }
+
+    @Test
+    void patchUser_WithInvalidId_ShouldThrowException() {
+        // Given
+        when(userRepository.patchByIdReturningOld(999L, "Name", null, null, null)).thenReturn(Optional.empty());
+
+        // When & Then
+        UserNotFoundException exception = assertThrows(UserNotFoundException.class,
+                () -> userService.patchUser(999L, new UserPatchRequest("Name", null, null), null));
+
+        assertEquals("User not found with id: 999", exception.getMessage());
+        verify(userRepository, never()).findResponseById(anyLong());
+    }
+
+    @Test
+    void createUser_WithOtherIntegrityViolation_ShouldNotReportEmailConflict() {
+        // Given
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("Value too long for column NAME");
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(violation);
+
+        // When & Then
+        assertSame(violation, assertThrows(DataIntegrityViolationException.class,
+                () -> userService.createUser(userRequest)));
+    }
+
+    @Test
+    void patchUser_WithTakenEmail_ShouldThrowEmailAlreadyExists() {
+        // Given
+        when(userRepository.patchByIdReturningOld(1L, null, "existing@example.com", null, null))
+                .thenThrow(new DataIntegrityViolationException("idx_user_email"));
+
+        // When & Then
+        EmailAlreadyExistsException exception = assertThrows(EmailAlreadyExistsException.class,
+                () -> userService.patchUser(1L, new UserPatchRequest(null, "existing@example.com", null), null));
+
+        assertEquals("User with email existing@example.com already exists", exception.getMessage());
+    }
+
+    @Test
+    void updateUser_WithStaleVersion_ShouldThrowVersionMismatch() {
         // Given
+        user.setVersion(5L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        // When & Then
+        assertThrows(UserVersionMismatchException.class,
+                () -> userService.updateUser(1L, userRequest, UserVersionCondition.anyOf(4L)));
+        verify(userRepository, never()).saveAndFlush(any(User.class));
+    }
+
+    @Test
+    void patchUser_WithStaleVersion_ShouldThrowVersionMismatch() {
+        // Given
+        when(userRepository.patchByIdReturningOld(1L, null, null, 31, Set.of(4L))).thenReturn(Optional.empty());
         when(userRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(userRepository).deleteById(1L);
+
+        // When & Then
+        assertThrows(UserVersionMismatchException.class,
+                () -> userService.patchUser(1L, new UserPatchRequest(null, null, 31), UserVersionCondition.anyOf(4L)));
+        verify(userRepository, never()).findResponseById(anyLong());
+    }
+
+    @Test
+    void deleteUser_WithStaleVersionOfMissingUser_ShouldThrowNotFound() {
+        // Given
+        when(userRepository.removeByIdReturning(999L, Set.of(4L))).thenReturn(Optional.empty());
+        when(userRepository.existsById(999L)).thenReturn(false);
+
+        // When & Then
+        assertThrows(UserNotFoundException.class, () -> userService.deleteUser(999L, UserVersionCondition.anyOf(4L)));
+    }
+
+    @Test
+    void deleteUser_WithIfMatchAnyOfMissingUser_ShouldThrowVersionMismatch() {
+        // Given
+        when(userRepository.removeByIdReturning(999L, null)).thenReturn(Optional.empty());
+
+        // When & Then: If-Match: * не выполняется для отсутствующей строки
+        assertThrows(UserVersionMismatchException.class,
+                () -> userService.deleteUser(999L, UserVersionCondition.any()));
+        verify(userRepository, never()).existsById(anyLong());
+    }
+
+    @Test
+    void updateUser_WithIfMatchAnyOfMissingUser_ShouldThrowVersionMismatch() {
+        // Given
+        when(userRepository.findById(999L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(UserVersionMismatchException.class,
+                () -> userService.updateUser(999L, userRequest, UserVersionCondition.any()));
+    }
+
+    @Test
+    void patchUser_WithVersionList_ShouldAcceptAnyListedVersion() {
+        // Given
+        UserResponse old = new UserResponse(1L, "John Doe", "john.doe@example.com", 30, LocalDateTime.now(), 5L);
+        when(userRepository.patchByIdReturningOld(1L, null, null, 31, Set.of(4L, 5L))).thenReturn(Optional.of(old));
+
+        // When
+        UserResponse result = userService.patchUser(1L, new UserPatchRequest(null, null, 31),
+                UserVersionCondition.anyOf(4L, 5L));
+
+        // Then
+        assertEquals(6L, result.getVersion());
+        assertEquals(31, result.getAge());
+    }
+
+    @Test
+    void deleteUser_WithValidId_ShouldDeleteUser() {
+        // Given
+        LocalDateTime createdAt = LocalDateTime.now();
+        when(userRepository.removeByIdReturning(1L, null))
+                .thenReturn(Optional.of(new UserResponse(1L, "John Doe", "john.doe@example.com", 30, createdAt)));
 
         // When
-        userService.deleteUser(1L);
+        userService.deleteUser(1L, null);
 
         // Then
-        verify(userRepository).existsById(1L);
-        verify(userRepository).deleteById(1L);
+        verify(userRepository).removeByIdReturning(1L, null);
+        verify(userRepository, never()).findResponseById(anyLong());
+        verify(statistics).userDeleted(30, createdAt);
+        verify(userRepository, never()).existsById(anyLong());
+        verify(userRepository, never()).deleteById(anyLong());
     }
 
     @Test
     void deleteUser_WithInvalidId_ShouldThrowException() {
         // Given
-        when(userRepository.existsById(999L)).thenReturn(false);
+        when(userRepository.removeByIdReturning(999L, null)).thenReturn(Optional.empty());
 
         // When & Then
-        RuntimeException exception = assertThrows(RuntimeException.class,
-                () -> userService.deleteUser(999L));
+        UserNotFoundException exception = assertThrows(UserNotFoundException.class,
+                () -> userService.deleteUser(999L, null));
 
         assertEquals("User not found with id: 999", exception.getMessage());
-        verify(userRepository, never()).deleteById(anyLong());
+    }
+
+    @Test
+    void getUsersByIds_ShouldKeepRequestedOrderAndReportMissing() {
+        // Given
+        UserResponse first = new UserResponse(1L, "John Doe", "john.doe@example.com", 30, LocalDateTime.now());
+        UserResponse third = new UserResponse(3L, "Jane Smith", "jane@example.com", 25, LocalDateTime.now());
+        when(userRepository.findResponsesByIdIn(List.of(3L, 2L, 1L))).thenReturn(List.of(first, third));
+
+        // When
+        UserMultiGetResponse result = userService.getUsersByIds(List.of(3L, 2L, 1L, 3L));
+
+        // Then
+        assertEquals(List.of(3L, 1L), result.getUsers().stream().map(UserResponse::getId).toList());
+        assertEquals(List.of(2L), result.getMissing());
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void getUsersByIds_ShouldQueryLargeListsInChunks() {
+        // Given
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= UserService.MULTI_GET_CHUNK_SIZE + 5; id++) {
+            ids.add(id);
+        }
+        when(userRepository.findResponsesByIdIn(anyList())).thenReturn(List.of());
+
+        // When
+        UserMultiGetResponse result = userService.getUsersByIds(ids);
+
+        // Then
+        assertTrue(result.getUsers().isEmpty());
+        assertEquals(UserService.MULTI_GET_CHUNK_SIZE + 5, result.getMissing().size());
+        verify(userRepository, times(2)).findResponsesByIdIn(anyList());
+    }
+
+    @Test
+    void deleteUsers_ShouldDeleteDistinctIdsInChunks() {
+        // Given
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= UserService.DELETE_CHUNK_SIZE + 10; id++) {
+            ids.add(id);
+        }
+        ids.add(1L);
+        when(cacheManager.getCache(CacheConfig.USERS_CACHE)).thenReturn(cache);
+        LocalDateTime createdAt = LocalDateTime.now();
+        when(userRepository.removeAllByIdInReturning(anyList())).thenAnswer(invocation -> {
+            List<Long> chunk = invocation.getArgument(0);
+            // Из второго чанка удаляются только 7 строк
+            return chunk.stream()
+                    .limit(chunk.size() == UserService.DELETE_CHUNK_SIZE ? chunk.size() : 7)
+                    .map(id -> new UserResponse(id, "User", "user" + id + "@example.com", 30, createdAt))
+                    .toList();
+        });
+
+        // When
+        UserBulkDeleteResponse result = userService.deleteUsers(ids);
+
+        // Then
+        assertEquals(UserService.DELETE_CHUNK_SIZE + 10, result.getRequested());
+        assertEquals(UserService.DELETE_CHUNK_SIZE + 7, result.getDeleted());
+        verify(userRepository, times(2)).removeAllByIdInReturning(anyList());
+        verify(statistics).usersDeleted(argThat(users -> users.size() == UserService.DELETE_CHUNK_SIZE + 7));
+        verify(changeFeed, times(UserService.DELETE_CHUNK_SIZE + 7)).userDeleted(any(UserResponse.class));
+        // Из кеша вытесняются только удалённые id
+        verify(cache, times(UserService.DELETE_CHUNK_SIZE + 7)).evict(any());
+        verify(cache, never()).clear();
+    }
+
+    @Test
+    void deleteUsers_WithTooManyIds_ShouldThrowException() {
+        // Given
+        List<Long> ids = new ArrayList<>();
+        for (long id = 0; id <= UserService.MAX_BULK_DELETE_IDS; id++) {
+            ids.add(id);
+        }
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> userService.deleteUsers(ids));
+        verify(userRepository, never()).removeAllByIdInReturning(anyList());
+    }
+
+    @Test
+    void processBatch_ShouldApplyMixedOperationsAndReportPerItemResults() {
+        // Given
+        User existing = new User("Old Name", "old@example.com", 40);
+        existing.setId(2L);
+
+        when(userRepository.findAllById(Set.of(2L, 999L))).thenReturn(List.of(existing));
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of("taken@example.com"));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+            User saved = invocation.getArgument(0);
+            saved.setId(10L);
+            return saved;
+        });
+
+        List<UserBatchOperation> operations = List.of(
+                UserBatchOperation.create(new UserRequest("New User", "new@example.com", 20)),
+                UserBatchOperation.create(new UserRequest("Dup User", "taken@example.com", 21)),
+                UserBatchOperation.update(2L, new UserRequest("New Name", "old@example.com", 41)),
+                UserBatchOperation.delete(2L),
+                UserBatchOperation.delete(999L)
+        );
+
+        // When
+        List<UserBatchResult> results = userService.processBatch(operations);
+
+        // Then
+        assertEquals(5, results.size());
+        assertEquals(201, results.get(0).getStatus());
+        assertEquals(10L, results.get(0).getUser().getId());
+        assertEquals(409, results.get(1).getStatus());
+        assertEquals("User with email taken@example.com already exists", results.get(1).getError());
+        assertEquals(200, results.get(2).getStatus());
+        assertEquals("New Name", results.get(2).getUser().getName());
+        assertEquals(204, results.get(3).getStatus());
+        assertEquals(404, results.get(4).getStatus());
+        assertEquals(4, results.get(4).getIndex());
+
+        verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository).delete(existing);
+        verify(userRepository).flush();
+    }
+
+    @Test
+    void processBatch_WithEmailTakenConcurrently_ShouldRetryAndReportConflictPerItem() {
+        // Given: email заняли между проверкой и flush; повтор видит его занятым
+        when(userRepository.findExistingEmails(anyCollection()))
+                .thenReturn(Set.of())
+                .thenReturn(Set.of("race@example.com"));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        doThrow(new DataIntegrityViolationException("Unique index violation: PUBLIC.IDX_USER_EMAIL_INDEX_4"))
+                .doNothing()
+                .when(userRepository).flush();
+
+        // When
+        List<UserBatchResult> results = userService.processBatch(List.of(
+                UserBatchOperation.create(new UserRequest("Race", "race@example.com", 20)),
+                UserBatchOperation.create(new UserRequest("Calm", "calm@example.com", 21))));
+
+        // Then
+        assertEquals(409, results.get(0).getStatus());
+        assertEquals(201, results.get(1).getStatus());
+        verify(userRepository, times(2)).flush();
+    }
+
+    @Test
+    void processBatch_WithRepeatedConflict_ShouldThrowBatchConflict() {
+        // Given
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of());
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        doThrow(new ObjectOptimisticLockingFailureException(User.class, 2L)).when(userRepository).flush();
+
+        // When & Then: ошибка SQL не уходит клиенту, пакет можно повторить
+        assertThrows(BatchConflictException.class, () -> userService.processBatch(List.of(
+                UserBatchOperation.create(new UserRequest("Race", "race@example.com", 20)))));
+        verify(userRepository, times(2)).flush();
+    }
+
+    @Test
+    void processBatch_WithDuplicateEmailInsideBatch_ShouldRejectSecondCreate() {
+        // Given
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of());
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<UserBatchOperation> operations = List.of(
+                UserBatchOperation.create(new UserRequest("First", "same@example.com", 20)),
+                UserBatchOperation.create(new UserRequest("Second", "same@example.com", 21)),
+                UserBatchOperation.update(null, null)
+        );
+
+        // When
+        List<UserBatchResult> results = userService.processBatch(operations);
+
+        // Then
+        assertEquals(201, results.get(0).getStatus());
+        assertEquals(409, results.get(1).getStatus());
+        assertEquals(400, results.get(2).getStatus());
+        verify(userRepository, never()).findAllById(any());
     }
 }
@@ -0,0 +1,197 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dto.UserResponse;
+import com.example.userservice.dto.UserStatsResponse;
+import com.example.userservice.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserStatisticsTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Test
+    void reconcile_ShouldBuildTotalHistogramAndSignupsFromDatabase() {
+        // Given
+        LocalDate today = LocalDate.now();
+        when(userRepository.countUsersByAge()).thenReturn(List.of(
+                new Object[]{25, 3L}, new Object[]{29, 2L}, new Object[]{42, 1L}, new Object[]{130, 1L}));
+        when(userRepository.countUsersByCreationDateSince(any())).thenReturn(List.of(
+                new Object[]{today, 4L}, new Object[]{today.minusDays(1), 3L}));
+        UserStatistics statistics = new UserStatistics(userRepository, Duration.ofMinutes(10), 366);
+
+        // When
+        statistics.reconcile();
+        UserStatsResponse stats = statistics.snapshot(7);
+
+        // Then
+        assertEquals(7, stats.getTotal());
+        assertEquals(5L, stats.getAgeHistogram().get("20-29"));
+        assertEquals(1L, stats.getAgeHistogram().get("40-49"));
+        assertEquals(1L, stats.getAgeHistogram().get("100+"));
+        assertEquals(0L, stats.getAgeHistogram().get("0-9"));
+        assertEquals(11, stats.getAgeHistogram().size());
+        assertEquals(7, stats.getSignupsPerDay().size());
+        assertEquals(4L, stats.getSignupsPerDay().get(today));
+        assertEquals(3L, stats.getSignupsPerDay().get(today.minusDays(1)));
+        assertEquals(0L, stats.getSignupsPerDay().get(today.minusDays(6)));
+        assertNotNull(stats.getReconciledAt());
+    }
+
+    @Test
+    void changes_ShouldUpdateCountersWithoutQueryingDatabase() {
+        // Given
+        UserStatistics statistics = new UserStatistics(userRepository, Duration.ofMinutes(10), 366);
+        LocalDateTime now = LocalDateTime.now();
+
+        // When
+        statistics.userCreated(30, now);
+        statistics.userCreated(35, now);
+        statistics.userCreated(70, now);
+        statistics.userAgeChanged(35, 41);
+        statistics.userDeleted(70, now);
+        UserStatsResponse stats = statistics.snapshot(1);
+
+        // Then
+        assertEquals(2, stats.getTotal());
+        assertEquals(1L, stats.getAgeHistogram().get("30-39"));
+        assertEquals(1L, stats.getAgeHistogram().get("40-49"));
+        assertEquals(0L, stats.getAgeHistogram().get("70-79"));
+        assertEquals(2L, stats.getSignupsPerDay().get(now.toLocalDate()));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void changeInsideTransaction_ShouldApplyOnlyAfterCommit() {
+        UserStatistics statistics = new UserStatistics(userRepository, Duration.ofMinutes(10), 366);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            statistics.userCreated(30, LocalDateTime.now());
+            assertEquals(0, statistics.snapshot(1).getTotal());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertEquals(1, statistics.snapshot(1).getTotal());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void concurrentChanges_ShouldNotLoseUpdates() throws Exception {
+        UserStatistics statistics = new UserStatistics(userRepository, Duration.ofMinutes(10), 366);
+        LocalDateTime now = LocalDateTime.now();
+        int threads = 8;
+        int perThread = 10_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int t = 0; t < threads; t++) {
+                executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        statistics.userCreated(i % 100, now);
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        }
+
+        UserStatsResponse stats = statistics.snapshot(1);
+        assertEquals((long) threads * perThread, stats.getTotal());
+        assertEquals((long) threads * perThread, stats.getSignupsPerDay().get(now.toLocalDate()));
+        assertEquals((long) threads * perThread / 10, stats.getAgeHistogram().get("50-59"));
+    }
+
+    @Test
+    void usersDeleted_ShouldSubtractExactAgesAndSignups() {
+        // Given
+        UserStatistics statistics = new UserStatistics(userRepository, Duration.ofMinutes(10), 366);
+        LocalDateTime now = LocalDateTime.now();
+        statistics.userCreated(25, now);
+        statistics.userCreated(27, now);
+        statistics.userCreated(64, now);
+
+        // When
+        statistics.usersDeleted(List.of(
+                new UserResponse(1L, "A", "a@example.com", 25, now),
+                new UserResponse(3L, "C", "c@example.com", 64, now)));
+        UserStatsResponse stats = statistics.snapshot(1);
+
+        // Then
+        assertEquals(1, stats.getTotal());
+        assertEquals(1L, stats.getAgeHistogram().get("20-29"));
+        assertEquals(0L, stats.getAgeHistogram().get("60-69"));
+        assertEquals(1L, stats.getSignupsPerDay().get(now.toLocalDate()));
+    }
+
+    @Test
+    void reconcileIfDue_ShouldReconcileOnlyWhenIntervalElapsed() {
+        // Given
+        when(userRepository.countUsersByAge()).thenReturn(List.of());
+        when(userRepository.countUsersByCreationDateSince(any())).thenReturn(List.of());
+        UserStatistics statistics = new UserStatistics(userRepository, Duration.ofMinutes(10), 366);
+        statistics.reconcile();
+
+        // When: сверка только что была
+        statistics.reconcileIfDue();
+
+        // Then
+        verify(userRepository, times(1)).countUsersByAge();
+
+        // When: интервал истёк
+        UserStatistics expired = new UserStatistics(userRepository, Duration.ZERO, 366);
+        expired.reconcile();
+        expired.reconcileIfDue();
+
+        // Then
+        verify(userRepository, times(3)).countUsersByAge();
+    }
+
+    @Test
+    void changesCommittedDuringReconcile_ShouldNotBeLost() throws Exception {
+        // Given: сверка читает БД, пока другой поток применяет закоммиченные изменения
+        CountDownLatch querying = new CountDownLatch(1);
+        CountDownLatch applied = new CountDownLatch(1);
+        when(userRepository.countUsersByAge()).thenAnswer(invocation -> {
+            querying.countDown();
+            assertTrue(applied.await(5, TimeUnit.SECONDS));
+            return List.of();
+        });
+        when(userRepository.countUsersByCreationDateSince(any())).thenReturn(List.of());
+        UserStatistics statistics = new UserStatistics(userRepository, Duration.ofMinutes(10), 366);
+        LocalDateTime now = LocalDateTime.now();
+
+        // When: запрос сверки этих изменений не видит
+        Thread reconcile = Thread.ofPlatform().start(statistics::reconcile);
+        assertTrue(querying.await(5, TimeUnit.SECONDS));
+        statistics.userCreated(30, now);
+        statistics.userCreated(31, now);
+        applied.countDown();
+        reconcile.join(5_000);
+
+        // Then: журнал сверки добавил их к результату
+        assertEquals(2, statistics.snapshot(1).getTotal());
+        assertEquals(2L, statistics.snapshot(1).getAgeHistogram().get("30-39"));
+    }
+}